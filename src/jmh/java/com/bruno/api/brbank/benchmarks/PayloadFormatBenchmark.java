@@ -0,0 +1,82 @@
+package com.bruno.api.brbank.benchmarks;
+
+import com.bruno.api.brbank.dtos.CursorPageDTO;
+import com.bruno.api.brbank.dtos.TransferDTO;
+import com.bruno.api.brbank.dtos.UserResponseDTO;
+import com.bruno.api.brbank.enums.UserRole;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayloadFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"20", "100"})
+    private int size;
+
+    private ObjectWriter writer;
+    private CursorPageDTO<UserResponseDTO> users;
+    private CursorPageDTO<TransferDTO> transfers;
+
+    @Setup
+    public void setUp() throws Exception {
+        JsonFactory factory = switch (format) {
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> new JsonFactory();
+        };
+        writer = new Jackson2ObjectMapperBuilder().factory(factory).build().writer();
+
+        List<UserResponseDTO> userPage = new ArrayList<>(size);
+        List<TransferDTO> transferPage = new ArrayList<>(size);
+        LocalDateTime now = LocalDateTime.of(2024, 3, 10, 9, 30);
+        for (int i = 0; i < size; i++) {
+            userPage.add(new UserResponseDTO((long) i + 1, "Bruno Silva " + i, "137116950" + String.format("%02d", i % 100),
+                    "bruno" + i + "@gmail.com", new BigDecimal("1500.75").add(BigDecimal.valueOf(i)), UserRole.COMMON_USER));
+            transferPage.add(new TransferDTO((long) i + 1, "Bruno Silva", 1L, "Wallace Silva", 2L,
+                    new BigDecimal("10.50").add(BigDecimal.valueOf(i)), now.plusMinutes(i)));
+        }
+        users = new CursorPageDTO<>(userPage, (long) size);
+        transfers = new CursorPageDTO<>(transferPage, (long) size);
+
+        System.out.printf("%n%s payload bytes for %d rows: users=%d transfers=%d%n",
+                format, size, writer.writeValueAsBytes(users).length, writer.writeValueAsBytes(transfers).length);
+    }
+
+    @Benchmark
+    public byte[] allUsersPage() throws Exception {
+        return writer.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public byte[] transferHistoryPage() throws Exception {
+        return writer.writeValueAsBytes(transfers);
+    }
+}
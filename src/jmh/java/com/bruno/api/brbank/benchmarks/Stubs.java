@@ -0,0 +1,32 @@
+package com.bruno.api.brbank.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+
+final class Stubs {
+
+    private Stubs() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T repository(Class<T> type) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if(method.getName().equals("save")){
+                return args[0];
+            }
+            if(method.getReturnType() == boolean.class || method.getReturnType() == Boolean.class){
+                return false;
+            }
+            if(method.getReturnType() == Optional.class){
+                return Optional.empty();
+            }
+            if(method.getName().equals("hashCode")){
+                return System.identityHashCode(proxy);
+            }
+            if(method.getName().equals("equals")){
+                return proxy == args[0];
+            }
+            return null;
+        });
+    }
+}
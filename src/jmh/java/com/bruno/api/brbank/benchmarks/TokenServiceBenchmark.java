@@ -0,0 +1,64 @@
+package com.bruno.api.brbank.benchmarks;
+
+import com.bruno.api.brbank.config.TokenService;
+import com.bruno.api.brbank.entities.User;
+import com.bruno.api.brbank.enums.UserRole;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenServiceBenchmark {
+
+    private TokenService tokenService;
+    private TokenService uncachedTokenService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        tokenService = tokenService(10_000L);
+        uncachedTokenService = tokenService(0L);
+        user = new User(1L, "Bruno Silva", "13711695000", "bruno@gmail.com", "12345", UserRole.COMMON_USER, BigDecimal.TEN);
+        token = tokenService.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return tokenService.generateToken(user);
+    }
+
+    @Benchmark
+    public String validateToken() {
+        return tokenService.validateToken(token);
+    }
+
+    @Benchmark
+    public String validateTokenWithoutCache() {
+        return uncachedTokenService.validateToken(token);
+    }
+
+    private static TokenService tokenService(long cacheMaxSize) {
+        TokenService service = new TokenService();
+        ReflectionTestUtils.setField(service, "secret", "benchmark-secret");
+        ReflectionTestUtils.setField(service, "cacheMaxSize", cacheMaxSize);
+        ReflectionTestUtils.invokeMethod(service, "init");
+        return service;
+    }
+}
@@ -0,0 +1,64 @@
+package com.bruno.api.brbank.benchmarks;
+
+import com.bruno.api.brbank.config.ReplicaLagGuard;
+import com.bruno.api.brbank.config.StageMetrics;
+import com.bruno.api.brbank.dtos.TransferRequest;
+import com.bruno.api.brbank.entities.User;
+import com.bruno.api.brbank.enums.UserRole;
+import com.bruno.api.brbank.repositories.TransferRepository;
+import com.bruno.api.brbank.repositories.UserRepository;
+import com.bruno.api.brbank.services.DailyBalanceService;
+import com.bruno.api.brbank.services.UserService;
+import com.bruno.api.brbank.services.impl.TransferServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransferServiceBenchmark {
+
+    private TransferServiceImpl service;
+    private TransferRequest request;
+    private User sender;
+    private User recipient;
+
+    @Setup
+    public void setUp() {
+        service = new TransferServiceImpl(Stubs.repository(UserRepository.class), Stubs.repository(TransferRepository.class), null, new StageMetrics(new SimpleMeterRegistry()),
+                Stubs.repository(DailyBalanceService.class), new ReplicaLagGuard(false, Duration.ofSeconds(2), 1000), Stubs.repository(UserService.class));
+        sender = new User(1L, "Bruno Silva", "13711695000", "bruno@gmail.com", "12345", UserRole.COMMON_USER, new BigDecimal("1000000000000000.00"));
+        recipient = new User(2L, "Wallace Silva", "45597409093", "wallace@gmail.com", "1234", UserRole.COMMON_USER, BigDecimal.ZERO);
+        request = new TransferRequest();
+        request.setSenderId(sender.getId());
+        request.setRecipient(recipient.getId());
+        request.setValue(new BigDecimal("0.01"));
+    }
+
+    @Benchmark
+    public void validTransferRequest() {
+        service.validTransferRequest(request, sender);
+    }
+
+    @Benchmark
+    public User createTransfer() {
+        service.createTransfer(request, sender, recipient);
+        return sender;
+    }
+}
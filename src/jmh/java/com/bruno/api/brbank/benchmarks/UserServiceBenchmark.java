@@ -0,0 +1,67 @@
+package com.bruno.api.brbank.benchmarks;
+
+import com.bruno.api.brbank.config.ReplicaLagGuard;
+import com.bruno.api.brbank.dtos.UserDTO;
+import com.bruno.api.brbank.dtos.UserResponseDTO;
+import com.bruno.api.brbank.entities.User;
+import com.bruno.api.brbank.enums.UserRole;
+import com.bruno.api.brbank.repositories.UserRepository;
+import com.bruno.api.brbank.services.impl.UserIndexServiceImpl;
+import com.bruno.api.brbank.services.impl.UserServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.BeanUtils;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserServiceBenchmark {
+
+    private UserServiceImpl service;
+    private UserDTO dto;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        UserRepository repository = Stubs.repository(UserRepository.class);
+        service = new UserServiceImpl(repository, null, new UserIndexServiceImpl(repository, 1000, 0.01, 1000),
+                new ReplicaLagGuard(false, Duration.ofSeconds(2), 1000), new ConcurrentMapCacheManager());
+        dto = new UserDTO(1L, "Bruno Silva", "13711695000", "bruno@gmail.com", "12345", BigDecimal.TEN, UserRole.COMMON_USER.toString());
+        user = new User(1L, "Bruno Silva", "13711695000", "bruno@gmail.com", "12345", UserRole.COMMON_USER, BigDecimal.TEN);
+    }
+
+    @Benchmark
+    public UserDTO validDtoToSave() {
+        service.validDtoToSave(dto);
+        return dto;
+    }
+
+    @Benchmark
+    public UserResponseDTO copyPropertiesMapping() {
+        UserResponseDTO response = new UserResponseDTO();
+        BeanUtils.copyProperties(user, response);
+        response.setRole(String.valueOf(user.getRole()));
+        return response;
+    }
+
+    @Benchmark
+    public UserResponseDTO constructorMapping() {
+        return new UserResponseDTO(user.getId(), user.getName(), user.getCpf(), user.getEmail(), user.getBalance(), user.getRole());
+    }
+}
@@ -0,0 +1,97 @@
+package com.bruno.api.brbank.benchmarks;
+
+import com.bruno.api.brbank.dtos.TransferRequest;
+import com.bruno.api.brbank.dtos.UserDTO;
+import com.bruno.api.brbank.entities.User;
+import com.bruno.api.brbank.enums.UserRole;
+import com.bruno.api.brbank.validation.ValidationError;
+import com.bruno.api.brbank.validation.ValidationRules;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private UserDTO dto;
+    private UserDTO invalidDto;
+    private TransferRequest request;
+    private User sender;
+
+    @Setup
+    public void setUp() {
+        dto = new UserDTO(1L, "Bruno Silva", "13711695000", "bruno@gmail.com", "12345", BigDecimal.TEN, UserRole.COMMON_USER.toString());
+        invalidDto = new UserDTO(1L, "bruno", "13711695000", "bruno@gmail.com", "12345", new BigDecimal("-1"), "OTHER");
+        sender = new User(1L, "Bruno Silva", "13711695000", "bruno@gmail.com", "12345", UserRole.COMMON_USER, new BigDecimal("1000000000000000.00"));
+        request = new TransferRequest();
+        request.setSenderId(1L);
+        request.setRecipient(2L);
+        request.setValue(new BigDecimal("0.01"));
+    }
+
+    @Benchmark
+    public String legacyUserChecks() {
+        if(!Objects.equals(UserRole.COMMON_USER.toString(), dto.getRole()) && !Objects.equals(UserRole.MERCHANT.toString(), dto.getRole()) && !Objects.equals(UserRole.ADMIN.toString(), dto.getRole())){
+            return "role";
+        }
+        if(!dto.getName().matches("[A-Z][a-z].* [A-Z][a-z].*")){
+            return "name";
+        }
+        if(dto.getBalance().doubleValue() < 0){
+            return "balance";
+        }
+        return null;
+    }
+
+    @Benchmark
+    public ValidationError compiledUserRules() {
+        return ValidationRules.USER_SAVE.firstError(dto, null);
+    }
+
+    @Benchmark
+    public List<ValidationError> compiledUserRulesCollectAll() {
+        return ValidationRules.USER_SAVE.allErrors(invalidDto, null);
+    }
+
+    @Benchmark
+    public String legacyTransferChecks() {
+        if(sender.getBalance().doubleValue() < request.getValue().doubleValue()){
+            return "balance";
+        }
+        if(request.getValue().doubleValue() == 0){
+            return "zero";
+        }
+        if(request.getValue().doubleValue() < 0){
+            return "negative";
+        }
+        if(sender.getRole().toString().equals("MERCHANT")){
+            return "merchant";
+        }
+        if(Objects.equals(request.getRecipient(), request.getSenderId())){
+            return "self";
+        }
+        return null;
+    }
+
+    @Benchmark
+    public ValidationError compiledTransferRules() {
+        return ValidationRules.TRANSFER.firstError(request, sender);
+    }
+}
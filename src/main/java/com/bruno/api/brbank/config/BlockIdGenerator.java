@@ -0,0 +1,102 @@
+package com.bruno.api.brbank.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.PersistentIdentifierGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.id.enhanced.TableGenerator;
+import org.hibernate.jdbc.AbstractReturningWork;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Properties;
+
+public class BlockIdGenerator extends TableGenerator {
+
+    public static final String BLOCK_SIZE = "bank.id.block-size";
+    public static final String TABLE_NAME = "id_blocks_tb";
+
+    private String targetTable;
+    private String targetColumn;
+    private boolean storeLastUsedValue;
+    private volatile boolean seeded;
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) {
+        ConfigurationService configuration = serviceRegistry.requireService(ConfigurationService.class);
+        parameters.put(INCREMENT_PARAM, String.valueOf(configuration.getSetting(BLOCK_SIZE, StandardConverters.INTEGER, 50)));
+        parameters.putIfAbsent(TABLE_PARAM, TABLE_NAME);
+        parameters.putIfAbsent(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        targetTable = parameters.getProperty(PersistentIdentifierGenerator.TABLE);
+        targetColumn = parameters.getProperty(PersistentIdentifierGenerator.PK);
+        storeLastUsedValue = configuration.getSetting(AvailableSettings.TABLE_GENERATOR_STORE_LAST_USED, StandardConverters.BOOLEAN, true);
+        super.configure(type, parameters, serviceRegistry);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        if(!seeded) {
+            synchronized (this) {
+                if(!seeded) {
+                    seed(session);
+                    seeded = true;
+                }
+            }
+        }
+        return super.generate(session, object);
+    }
+
+    private void seed(SharedSessionContractImplementor session) {
+        if(targetTable == null || targetColumn == null) {
+            return;
+        }
+        session.getTransactionCoordinator().createIsolationDelegate().delegateWork(new AbstractReturningWork<Void>() {
+            @Override
+            public Void execute(Connection connection) throws SQLException {
+                long floor;
+                try (PreparedStatement select = connection.prepareStatement("SELECT COALESCE(MAX(" + targetColumn + "), 0) FROM " + targetTable);
+                     ResultSet result = select.executeQuery()) {
+                    result.next();
+                    floor = result.getLong(1) + (storeLastUsedValue ? 0 : 1);
+                }
+                if(raise(connection, floor) == 0 && !exists(connection)) {
+                    try (PreparedStatement insert = connection.prepareStatement(
+                            "INSERT INTO " + getTableName() + " (" + getSegmentColumnName() + ", " + getValueColumnName() + ") VALUES (?, ?)")) {
+                        insert.setString(1, getSegmentValue());
+                        insert.setLong(2, floor);
+                        insert.executeUpdate();
+                    } catch (SQLException e) {
+                        raise(connection, floor);
+                    }
+                }
+                return null;
+            }
+        }, true);
+    }
+
+    private int raise(Connection connection, long floor) throws SQLException {
+        try (PreparedStatement update = connection.prepareStatement(
+                "UPDATE " + getTableName() + " SET " + getValueColumnName() + " = ? WHERE " + getSegmentColumnName() + " = ? AND " + getValueColumnName() + " < ?")) {
+            update.setLong(1, floor);
+            update.setString(2, getSegmentValue());
+            update.setLong(3, floor);
+            return update.executeUpdate();
+        }
+    }
+
+    private boolean exists(Connection connection) throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT 1 FROM " + getTableName() + " WHERE " + getSegmentColumnName() + " = ?")) {
+            select.setString(1, getSegmentValue());
+            try (ResultSet result = select.executeQuery()) {
+                return result.next();
+            }
+        }
+    }
+}
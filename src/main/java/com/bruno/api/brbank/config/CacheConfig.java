@@ -0,0 +1,63 @@
+package com.bruno.api.brbank.config;
+
+import com.bruno.api.brbank.entities.User;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String PRINCIPALS = "principals";
+    public static final String USERS = "users";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${bank.cache.principals.max-size:10000}") long principalsMaxSize,
+                                     @Value("${bank.cache.principals.ttl:5m}") Duration principalsTtl,
+                                     @Value("${bank.cache.users.max-size:100000}") long usersMaxSize,
+                                     @Value("${bank.cache.users.ttl:10m}") Duration usersTtl){
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(PRINCIPALS, Caffeine.newBuilder()
+                .maximumSize(principalsMaxSize)
+                .expireAfterWrite(principalsTtl)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(USERS, Caffeine.newBuilder()
+                .maximumSize(usersMaxSize)
+                .expireAfterWrite(usersTtl)
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheCustomizer(@Value("${bank.cache.entities.max-size:100000}") long entitiesMaxSize,
+                                                               @Value("${bank.cache.entities.ttl:10m}") Duration entitiesTtl){
+        return properties -> {
+            CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+            javax.cache.CacheManager entityCaches = provider.getCacheManager(provider.getDefaultURI(), CacheConfig.class.getClassLoader());
+            if(entityCaches.getCache(User.class.getName()) == null){
+                CaffeineConfiguration<Object, Object> users = new CaffeineConfiguration<>();
+                users.setMaximumSize(OptionalLong.of(entitiesMaxSize));
+                users.setExpireAfterWrite(OptionalLong.of(entitiesTtl.toNanos()));
+                users.setStatisticsEnabled(true);
+                entityCaches.createCache(User.class.getName(), users);
+            }
+            properties.put(ConfigSettings.CACHE_MANAGER, entityCaches);
+        };
+    }
+}
@@ -0,0 +1,88 @@
+package com.bruno.api.brbank.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class RateLimiter {
+
+    public static final String REJECTED = "bank.security.rate_limit.rejected";
+
+    private final boolean enabled;
+    private final long interval;
+    private final long tolerance;
+    private final Semaphore inFlight;
+    private final Cache<String, AtomicLong> arrivals;
+    private final Counter userRejections;
+    private final Counter concurrencyRejections;
+
+    public RateLimiter(@Value("${bank.security.rate-limit.enabled:true}") boolean enabled,
+                       @Value("${bank.security.rate-limit.requests-per-second:20}") double requestsPerSecond,
+                       @Value("${bank.security.rate-limit.burst:40}") int burst,
+                       @Value("${bank.security.rate-limit.max-concurrent:200}") int maxConcurrent,
+                       @Value("${bank.security.rate-limit.tracked-users:100000}") long trackedUsers,
+                       MeterRegistry registry) {
+        if(requestsPerSecond <= 0 || burst < 1 || maxConcurrent < 1){
+            throw new IllegalArgumentException("The rate limit, burst and concurrency must be positive");
+        }
+        this.enabled = enabled;
+        this.interval = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond));
+        this.tolerance = interval * burst;
+        this.inFlight = new Semaphore(maxConcurrent);
+        this.arrivals = Caffeine.newBuilder()
+                .maximumSize(trackedUsers)
+                .expireAfterAccess(Duration.ofNanos(tolerance))
+                .build();
+        this.userRejections = Counter.builder(REJECTED).tag("reason", "user").register(registry);
+        this.concurrencyRejections = Counter.builder(REJECTED).tag("reason", "concurrency").register(registry);
+    }
+
+    public long reserve(String principal) {
+        return reserve(principal, System.nanoTime());
+    }
+
+    long reserve(String principal, long now) {
+        if(!enabled) {
+            return 0;
+        }
+        AtomicLong arrival = arrivals.get(principal, key -> new AtomicLong(now));
+        while (true) {
+            long current = arrival.get();
+            long next = Math.max(current, now) + interval;
+            long wait = next - now - tolerance;
+            if(wait > 0) {
+                userRejections.increment();
+                return wait;
+            }
+            if(arrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public boolean enter() {
+        if(!enabled) {
+            return true;
+        }
+        if(inFlight.tryAcquire()) {
+            return true;
+        }
+        concurrencyRejections.increment();
+        return false;
+    }
+
+    public void exit() {
+        if(enabled) {
+            inFlight.release();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.bruno.api.brbank.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String REPLICA = "replica";
+
+    private static final ThreadLocal<Route> ROUTE = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    public static void begin(TransactionDefinition definition) {
+        if(definition.isReadOnly() && definition instanceof TransactionAttribute attribute && attribute.getLabels().contains(REPLICA)) {
+            ROUTE.set(Route.REPLICA);
+        }
+        else {
+            ROUTE.set(Route.PRIMARY);
+        }
+    }
+
+    public static void requirePrimary() {
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+    }
+
+    public static void clear() {
+        ROUTE.remove();
+        PRIMARY_REQUIRED.remove();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ROUTE.get() == Route.REPLICA && PRIMARY_REQUIRED.get() == null ? Route.REPLICA : Route.PRIMARY;
+    }
+
+    enum Route {
+        PRIMARY,
+        REPLICA
+    }
+}
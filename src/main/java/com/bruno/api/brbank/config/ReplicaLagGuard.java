@@ -0,0 +1,65 @@
+package com.bruno.api.brbank.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+@Component
+public class ReplicaLagGuard {
+
+    private final boolean enabled;
+    private final Cache<Long, Boolean> recentWrites;
+
+    public ReplicaLagGuard(@Value("${bank.datasource.replica.enabled:false}") boolean enabled,
+                           @Value("${bank.datasource.replica.max-lag:2s}") Duration maxLag,
+                           @Value("${bank.datasource.replica.tracked-users:100000}") long trackedUsers) {
+        this.enabled = enabled;
+        this.recentWrites = Caffeine.newBuilder()
+                .maximumSize(trackedUsers)
+                .expireAfterWrite(maxLag)
+                .build();
+    }
+
+    public void written(Long userId) {
+        written(List.of(userId));
+    }
+
+    public void written(Collection<Long> userIds) {
+        if(!enabled || userIds.isEmpty()) {
+            return;
+        }
+        if(TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<Long> ids = List.copyOf(userIds);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    mark(ids);
+                }
+            });
+        }
+        else {
+            mark(userIds);
+        }
+    }
+
+    public void reading(Long userId) {
+        if(enabled && userId != null && TransactionSynchronizationManager.isActualTransactionActive() && recentWrites.getIfPresent(userId) != null) {
+            ReadWriteRoutingDataSource.requirePrimary();
+        }
+    }
+
+    private void mark(Collection<Long> userIds) {
+        for (Long id : userIds) {
+            if(id != null) {
+                recentWrites.put(id, Boolean.TRUE);
+            }
+        }
+    }
+}
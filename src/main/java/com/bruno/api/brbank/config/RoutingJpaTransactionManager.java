@@ -0,0 +1,32 @@
+package com.bruno.api.brbank.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+public class RoutingJpaTransactionManager extends JpaTransactionManager {
+
+    public RoutingJpaTransactionManager(EntityManagerFactory entityManagerFactory) {
+        super(entityManagerFactory);
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        ReadWriteRoutingDataSource.begin(definition);
+        try {
+            super.doBegin(transaction, definition);
+        } catch (RuntimeException e) {
+            ReadWriteRoutingDataSource.clear();
+            throw e;
+        }
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        try {
+            super.doCleanupAfterCompletion(transaction);
+        } finally {
+            ReadWriteRoutingDataSource.clear();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.bruno.api.brbank.config;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -44,7 +45,7 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder encoder(){
-        return new BCryptPasswordEncoder();
+    public static PasswordEncoder encoder(@Value("${bank.security.bcrypt.strength:10}") int strength){
+        return new BCryptPasswordEncoder(strength);
     }
 }
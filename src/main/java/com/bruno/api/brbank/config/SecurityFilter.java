@@ -1,13 +1,18 @@
 package com.bruno.api.brbank.config;
 
+import com.bruno.api.brbank.exceptions.ApiErrors;
 import com.bruno.api.brbank.repositories.UserRepository;
 import com.bruno.api.brbank.services.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -15,6 +20,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class SecurityFilter extends OncePerRequestFilter {
@@ -23,17 +29,45 @@ public class SecurityFilter extends OncePerRequestFilter {
     private TokenService tokenService;
     @Autowired
     private UserService userService;
+    @Autowired
+    private StageMetrics stageMetrics;
+    @Autowired
+    private RateLimiter rateLimiter;
+    @Autowired
+    private ObjectMapper objectMapper;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
-        String token = this.recoverToken(request);
-        if(token != null){
-            String login = tokenService.validateToken(token);
-            UserDetails user = userService.loadUserByUsername(login);
-            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+        if(!rateLimiter.enter()){
+            reject(response, TimeUnit.SECONDS.toNanos(1), "Too many requests in progress, try again later");
+            return;
         }
-        filterChain.doFilter(request, response);
+        try {
+            String token = this.recoverToken(request);
+            if(token != null){
+                String login = stageMetrics.record(StageMetrics.SECURITY, "validate_token", () -> tokenService.validateToken(token));
+                if(!login.isEmpty()){
+                    long wait = rateLimiter.reserve(login);
+                    if(wait > 0){
+                        reject(response, wait, "Too many requests for this user, try again later");
+                        return;
+                    }
+                }
+                UserDetails user = stageMetrics.record(StageMetrics.SECURITY, "load_principal", () -> userService.loadUserByUsername(login));
+                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+            }
+            filterChain.doFilter(request, response);
+        } finally {
+            rateLimiter.exit();
+        }
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos, String message) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1))));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ApiErrors(message));
     }
 
     private String recoverToken(HttpServletRequest request){
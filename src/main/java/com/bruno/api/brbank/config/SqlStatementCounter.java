@@ -0,0 +1,27 @@
+package com.bruno.api.brbank.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    public static void start(){
+        COUNT.set(new int[1]);
+    }
+
+    public static int stop(){
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count == null ? 0 : count[0];
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = COUNT.get();
+        if(count != null){
+            count[0]++;
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,39 @@
+package com.bruno.api.brbank.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+@Component
+public class StageMetrics {
+
+    public static final String TRANSFER = "bank.transfer.stage";
+    public static final String SECURITY = "bank.security.stage";
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public StageMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public <T> T record(String metric, String stage, Supplier<T> supplier){
+        return timer(metric, stage).record(supplier);
+    }
+
+    public void record(String metric, String stage, Runnable runnable){
+        timer(metric, stage).record(runnable);
+    }
+
+    private Timer timer(String metric, String stage){
+        return timers.computeIfAbsent(metric + ':' + stage, key -> Timer.builder(metric)
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry));
+    }
+}
@@ -1,18 +1,29 @@
 package com.bruno.api.brbank.config;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTCreationException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
 import com.bruno.api.brbank.entities.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.Base64;
 
 @Service
 @PropertySource("classpath:security-token-config.properties")
@@ -20,10 +31,27 @@ public class TokenService {
 
     @Value("${api.security.token.secret}")
     private String secret;
+    @Value("${bank.security.token.cache.max-size:100000}")
+    private long cacheMaxSize;
+
+    private Algorithm algorithm;
+    private JWTVerifier verifier;
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+    @PostConstruct
+    void init(){
+        algorithm = Algorithm.HMAC256(secret);
+        verifier = JWT.require(algorithm)
+                .withIssuer("bank-api")
+                .build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new VerifiedTokenExpiry())
+                .build();
+    }
 
     public String generateToken(User user){
         try {
-            Algorithm algorithm = Algorithm.HMAC256(secret);
             String token = JWT.create()
                     .withIssuer("bank-api")
                     .withSubject(user.getEmail())
@@ -36,19 +64,52 @@ public class TokenService {
     }
 
     public String validateToken(String token){
+        String key = hash(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(key);
+        if(cached != null && cached.expiresAt().isAfter(Instant.now())){
+            return cached.subject();
+        }
         try{
-            Algorithm algorithm = Algorithm.HMAC256(secret);
-            return JWT.require(algorithm)
-                    .withIssuer("bank-api")
-                    .build()
-                    .verify(token)
-                    .getSubject();
+            DecodedJWT decoded = verifier.verify(token);
+            if(decoded.getExpiresAtAsInstant() != null){
+                verifiedTokens.put(key, new VerifiedToken(decoded.getSubject(), decoded.getExpiresAtAsInstant()));
+            }
+            return decoded.getSubject();
         } catch (JWTVerificationException e){
             return "";
         }
     }
 
+    private String hash(String token){
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e){
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
     private Instant genExpirationDate(){
         return LocalDateTime.now().plusHours(1).toInstant(ZoneOffset.of("-03:00"));
     }
+
+    private record VerifiedToken(String subject, Instant expiresAt) {
+    }
+
+    private static class VerifiedTokenExpiry implements Expiry<String, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), value.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
@@ -1,29 +1,51 @@
 package com.bruno.api.brbank.controllers;
 
+import com.bruno.api.brbank.config.StageMetrics;
 import com.bruno.api.brbank.config.TokenService;
 import com.bruno.api.brbank.dtos.AuthenticationDTO;
+import com.bruno.api.brbank.dtos.CursorPageDTO;
+import com.bruno.api.brbank.dtos.ImportResultDTO;
+import com.bruno.api.brbank.dtos.StatementDTO;
+import com.bruno.api.brbank.dtos.TransferDTO;
 import com.bruno.api.brbank.dtos.TransferRequest;
+import com.bruno.api.brbank.dtos.TransferResultDTO;
+import com.bruno.api.brbank.dtos.TransferStatusDTO;
 import com.bruno.api.brbank.dtos.UserDTO;
 import com.bruno.api.brbank.dtos.UserResponseDTO;
 import com.bruno.api.brbank.entities.User;
-import com.bruno.api.brbank.enums.UserRole;
+import com.bruno.api.brbank.exceptions.PreconditionFailedException;
+import com.bruno.api.brbank.services.AsyncTransferService;
+import com.bruno.api.brbank.services.DailyBalanceService;
+import com.bruno.api.brbank.services.IdempotencyService;
+import com.bruno.api.brbank.services.LedgerService;
+import com.bruno.api.brbank.services.PasswordHashingService;
+import com.bruno.api.brbank.services.TransferExportService;
 import com.bruno.api.brbank.services.TransferService;
+import com.bruno.api.brbank.services.UserImportService;
 import com.bruno.api.brbank.services.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.BeanUtils;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.ArrayList;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.security.Principal;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/bank/users")
@@ -32,8 +54,16 @@ import java.util.List;
 public class UserController {
     private final UserService service;
     private final TransferService transferService;
+    private final LedgerService ledgerService;
     private final AuthenticationManager manager;
     private final TokenService tokenService;
+    private final PasswordHashingService passwordHashingService;
+    private final StageMetrics stageMetrics;
+    private final IdempotencyService idempotencyService;
+    private final AsyncTransferService asyncTransferService;
+    private final UserImportService userImportService;
+    private final DailyBalanceService dailyBalanceService;
+    private final TransferExportService transferExportService;
 
     @Operation(summary = "Realizar o registro de um usuário")
     @ApiResponses(value = {
@@ -44,7 +74,7 @@ public class UserController {
     })
     @PostMapping("/register")
     public ResponseEntity<?> create(@RequestBody @Valid UserDTO dto){
-        String encryptedPassword = new BCryptPasswordEncoder().encode(dto.getPassword());
+        String encryptedPassword = passwordHashingService.encode(dto.getPassword());
         dto.setRole(dto.getRole().toUpperCase());
         dto.setPassword(encryptedPassword);
         service.validDtoToSave(dto);
@@ -52,62 +82,105 @@ public class UserController {
         return ResponseEntity.status(HttpStatus.CREATED).body("User created successfully");
     }
 
+    @Operation(summary = "Importar usuários em lote a partir de um arquivo NDJSON ou CSV")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Importação processada, com os erros de cada linha"),
+            @ApiResponse(responseCode = "400", description = "Formato ou cabeçalho inválido"),
+            @ApiResponse(responseCode = "500", description = "Erro ao importar os usuários"),
+    })
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<ImportResultDTO> importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body){
+        return ResponseEntity.ok().body(userImportService.importUsers(body, MediaType.parseMediaType(contentType)));
+    }
+
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody AuthenticationDTO dto){
         User user = service.findByEmailAndPassword(dto.login(), dto.password());
-        var token = tokenService.generateToken(user);
+        var token = stageMetrics.record(StageMetrics.SECURITY, "generate_token", () -> tokenService.generateToken(user));
         return ResponseEntity.status(HttpStatus.OK).body("Your token is: " + token);
     }
 
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Transferência realizada com sucesso"),
+            @ApiResponse(responseCode = "202", description = "Transferência aceita para processamento assíncrono"),
             @ApiResponse(responseCode = "422", description = "Dados de requisição inválidos"),
             @ApiResponse(responseCode = "400", description = "Parâmetros inválidos"),
+            @ApiResponse(responseCode = "409", description = "Requisição com a mesma Idempotency-Key ainda em andamento"),
+            @ApiResponse(responseCode = "503", description = "Fila de transferências cheia"),
             @ApiResponse(responseCode = "500", description = "Erro ao fazer a transação"),
     })
     @Operation(summary = "Realizar uma transferência para um usuário")
     @PostMapping("/transfer")
-    public ResponseEntity<?> transferMethod(@RequestBody @Valid TransferRequest transferRequest){
-        User sender = service.findById(transferRequest.getSenderId()).orElseThrow(() -> new IllegalArgumentException("This sender ID does not exist in our system"));
-        User recipient = service.findById(transferRequest.getRecipient()).orElseThrow(() -> new IllegalArgumentException("This recipient ID does not exist in our system"));
-        transferService.createTransfer(transferRequest, sender, recipient);
-        service.save(sender);
-        service.save(recipient);
+    public ResponseEntity<?> transferMethod(@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                            @RequestBody @Valid TransferRequest transferRequest,
+                                            Principal principal){
+        String request = transferRequest.getSenderId() + ":" + transferRequest.getRecipient() + ":" + transferRequest.getValue().toPlainString();
+        String name = principal == null ? null : principal.getName();
+        if(ledgerService.isEnabled()){
+            return idempotencyService.executeNonTransactional(name, idempotencyKey, request, () -> executeTransfer(transferRequest));
+        }
+        return idempotencyService.execute(name, idempotencyKey, request, () -> executeTransfer(transferRequest));
+    }
+
+    private ResponseEntity<String> executeTransfer(TransferRequest transferRequest){
+        if(ledgerService.isEnabled()){
+            stageMetrics.record(StageMetrics.TRANSFER, "ledger_transfer", () -> ledgerService.transfer(transferRequest));
+            return ResponseEntity.status(HttpStatus.OK).body("Transfer completed successfully");
+        }
+        if(asyncTransferService.isEnabled()){
+            Long id = asyncTransferService.submit(transferRequest);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).location(URI.create("/api/bank/users/transfers/" + id)).body(String.valueOf(id));
+        }
+        if(transferService.isAtomic()){
+            transferService.transferAtomically(transferRequest);
+            return ResponseEntity.status(HttpStatus.OK).body("Transfer completed successfully");
+        }
+        transferService.transfer(transferRequest);
         return ResponseEntity.status(HttpStatus.OK).body("Transfer completed successfully");
     }
 
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lote processado, com o resultado de cada transferência"),
+            @ApiResponse(responseCode = "400", description = "Lote vazio ou maior que o permitido"),
+            @ApiResponse(responseCode = "500", description = "Erro ao processar o lote de transferências"),
+    })
+    @Operation(summary = "Realizar um lote de transferências em uma única transação")
+    @PostMapping("/transfer/batch")
+    public ResponseEntity<List<TransferResultDTO>> transferBatch(@RequestBody List<TransferRequest> transferRequests){
+        if(ledgerService.isEnabled()){
+            return ResponseEntity.status(HttpStatus.OK).body(ledgerService.transferAll(transferRequests));
+        }
+        return ResponseEntity.status(HttpStatus.OK).body(transferService.createTransfers(transferRequests));
+    }
+
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Atualização desse usuário ocorreu com sucesso"),
             @ApiResponse(responseCode = "422", description = "Dados de requisição inválidos"),
             @ApiResponse(responseCode = "400", description = "Parâmetros inválidos"),
+            @ApiResponse(responseCode = "409", description = "Usuário alterado por outra requisição durante a atualização"),
+            @ApiResponse(responseCode = "412", description = "If-Match não corresponde à versão atual do usuário"),
             @ApiResponse(responseCode = "500", description = "Erro ao atualizar os dados deste usuário"),
     })
     @Operation(summary = "Realizar uma atualização nos dados de um usuário")
     @PutMapping("/{id}")
-    public void update(@RequestBody@Valid UserDTO dto, @PathVariable Long id){
+    public void update(@RequestBody@Valid UserDTO dto, @PathVariable Long id,
+                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
         dto.setRole(dto.getRole().toUpperCase());
+        ledgerService.exclusive(id, () -> updateUser(dto, id, ifMatch));
+    }
+
+    private User updateUser(UserDTO dto, Long id, String ifMatch){
         User user = service.findById(id).orElseThrow(() -> new IllegalArgumentException("User not exists"));
-        service.updateValidation(dto);
-        if(service.existsByEmail(user.getEmail()) && service.existsByCpf(user.getCpf())){
-            if(service.existsByEmail(user.getEmail()) && service.existsByCpf(user.getCpf())){
-                User emailFoundedByEmail = service.findByEmail(dto.getEmail()).orElse(new User());
-                User emailFoundedByCpf = service.findByCpf(dto.getCpf()).orElse(new User());
-
-                if (emailFoundedByEmail.getId() == null && emailFoundedByCpf.getId() == null) {
-                    throw new IllegalArgumentException("This email or CPF already has an associated record");
-                }
-
-                User updatedUser = new User();
-                BeanUtils.copyProperties(dto, updatedUser);
-                updatedUser.setId(user.getId());
-                updatedUser.setRole(UserRole.valueOf(dto.getRole()));
-                service.save(updatedUser);
-                ResponseEntity.status(HttpStatus.OK).body("User updated successfully");
-            }
-            else{
-                throw new IllegalArgumentException("This email or CPF already has an associated record");
-            }
+        if(ifMatch != null && !ifMatch.trim().equals("*") && !ifMatch.trim().equals(etag(id, user.getVersion()))){
+            throw new PreconditionFailedException("The user was modified since it was read, reload it and try again");
         }
+        service.updateValidation(dto);
+        service.validUniqueness(dto, user.getId());
+
+        User updatedUser = service.dtoToEntity(dto);
+        updatedUser.setId(user.getId());
+        updatedUser.setVersion(user.getVersion());
+        return service.update(user, updatedUser);
     }
 
     @ApiResponses(value = {
@@ -119,45 +192,133 @@ public class UserController {
     @Operation(summary = "Realizar a deleção de um usuário")
     @DeleteMapping("/{id}")
     public ResponseEntity<?> delete(@PathVariable Long id){
-        User user = service.findById(id).orElseThrow(() -> new IllegalArgumentException("User not exists"));
-        service.delete(user);
-        return ResponseEntity.status(HttpStatus.OK).body("User deleted successfully");
+        return ledgerService.exclusive(id, () -> {
+            User user = service.findById(id).orElseThrow(() -> new IllegalArgumentException("User not exists"));
+            service.delete(user);
+            return ResponseEntity.status(HttpStatus.OK).body("User deleted successfully");
+        });
     }
 
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Busca realizada com sucesso"),
+            @ApiResponse(responseCode = "304", description = "Página não modificada desde o ETag informado"),
             @ApiResponse(responseCode = "422", description = "Dados de requisição inválidos"),
             @ApiResponse(responseCode = "400", description = "Parâmetros inválidos"),
             @ApiResponse(responseCode = "500", description = "Erro ao buscar este usuário"),
     })
-    @Operation(summary = "Realizar a busca de todos os usuário")
+    @Operation(summary = "Realizar a busca paginada dos usuários, com filtro opcional por tipo")
     @GetMapping("/")
-    @ResponseStatus(HttpStatus.OK)
-    public List<UserResponseDTO> allUsers(){
-        List<User> users = service.findAll();
-        List<UserResponseDTO> responseDTOS = new ArrayList<>();
-        for (User user : users) {
-            UserResponseDTO userResponseDTO = new UserResponseDTO();
-            BeanUtils.copyProperties(user, userResponseDTO);
-            responseDTOS.add(userResponseDTO);
+    public ResponseEntity<CursorPageDTO<UserResponseDTO>> allUsers(@RequestParam(required = false) Long cursor,
+                                                                   @RequestParam(required = false) String role,
+                                                                   @RequestParam(defaultValue = "20") int size,
+                                                                   WebRequest request){
+        String etag = service.pageTag(cursor, role, size);
+        if(request.checkNotModified(etag)){
+            return null;
         }
-        return responseDTOS;
+        return ResponseEntity.ok().eTag(etag).body(service.findPage(cursor, role, size));
     }
 
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Busca realizada com sucesso"),
+            @ApiResponse(responseCode = "304", description = "Usuário não modificado desde o ETag informado"),
             @ApiResponse(responseCode = "422", description = "Dados de requisição inválidos"),
             @ApiResponse(responseCode = "400", description = "Parâmetros inválidos"),
             @ApiResponse(responseCode = "500", description = "Erro ao buscar este usuário"),
     })
     @Operation(summary = "Realizar a busca de um usuário por ID")
     @GetMapping("/{id}")
-    public ResponseEntity<UserResponseDTO> getById(@PathVariable Long id){
-        User user = service.findById(id).orElseThrow(() -> new IllegalArgumentException("User not exists"));
-        UserResponseDTO dto = new UserResponseDTO();
-        BeanUtils.copyProperties(user, dto);
-        dto.setRole(String.valueOf(user.getRole()));
-        return ResponseEntity.ok().body(dto);
+    public ResponseEntity<UserResponseDTO> getById(@PathVariable Long id, WebRequest request){
+        UserResponseDTO dto = service.findCachedResponse(id)
+                .or(() -> service.findResponseById(id))
+                .orElseThrow(() -> new IllegalArgumentException("User not exists"));
+        String etag = etag(id, dto.getVersion());
+        if(request.checkNotModified(etag)){
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(dto);
     }
 
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Busca realizada com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Parâmetros inválidos"),
+            @ApiResponse(responseCode = "500", description = "Erro ao buscar as transferências deste usuário"),
+    })
+    @Operation(summary = "Realizar a busca paginada das transferências enviadas e recebidas de um usuário")
+    @GetMapping("/{id}/transfers")
+    public ResponseEntity<CursorPageDTO<TransferDTO>> transferHistory(@PathVariable Long id,
+                                                                      @RequestParam(required = false) Long cursor,
+                                                                      @RequestParam(defaultValue = "20") int size){
+        return ResponseEntity.ok().body(transferService.findHistory(id, cursor, size));
+    }
+
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Exportação iniciada, as transferências são enviadas em fluxo contínuo"),
+            @ApiResponse(responseCode = "400", description = "Formato ou período inválido"),
+    })
+    @Operation(summary = "Exportar o histórico de transferências em NDJSON ou CSV, filtrado por usuário e período")
+    @GetMapping("/transfers/export")
+    public ResponseEntity<StreamingResponseBody> exportTransfers(@RequestParam(required = false) Long userId,
+                                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                 @RequestParam(defaultValue = "ndjson") String format,
+                                                                 @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding){
+        MediaType contentType = transferExportService.contentType(format);
+        transferExportService.validPeriod(from, to);
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transfers." + format.toLowerCase() + "\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if(gzip){
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(output -> {
+            if(gzip){
+                GZIPOutputStream compressed = new GZIPOutputStream(output, 65536, true);
+                transferExportService.export(userId, from, to, contentType, compressed);
+                compressed.finish();
+            }
+            else{
+                transferExportService.export(userId, from, to, contentType, output);
+            }
+        });
+    }
+
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Situação da transferência encontrada"),
+            @ApiResponse(responseCode = "400", description = "Transferência não encontrada"),
+    })
+    @Operation(summary = "Consultar a situação de uma transferência")
+    @GetMapping("/transfers/{id}")
+    public ResponseEntity<TransferStatusDTO> transferStatus(@PathVariable Long id){
+        return ResponseEntity.ok().body(transferService.findStatus(id));
+    }
+
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Extrato gerado com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Período inválido ou usuário não encontrado"),
+    })
+    @Operation(summary = "Gerar o extrato diário de entradas, saídas e saldo de um usuário em um período")
+    @GetMapping("/{id}/statement")
+    public ResponseEntity<StatementDTO> statement(@PathVariable Long id,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to){
+        return ResponseEntity.ok().body(dailyBalanceService.statement(id, from, to));
+    }
+
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Saldo encontrado"),
+            @ApiResponse(responseCode = "400", description = "Usuário não encontrado"),
+    })
+    @Operation(summary = "Consultar o saldo de um usuário ao final de uma data")
+    @GetMapping("/{id}/balance")
+    public ResponseEntity<BigDecimal> balanceAt(@PathVariable Long id,
+                                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date){
+        return ResponseEntity.ok().body(dailyBalanceService.balanceAt(id, date));
+    }
+
+    private String etag(Long id, Long version){
+        return "\"" + id + "-" + version + "\"";
+    }
 }
@@ -0,0 +1,23 @@
+package com.bruno.api.brbank.dtos;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter@Setter
+@JsonPropertyOrder({"content", "nextCursor"})
+public class CursorPageDTO<T> {
+    private List<T> content;
+    private Long nextCursor;
+
+    public CursorPageDTO(List<T> content, Long nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+    }
+
+    public CursorPageDTO(){
+
+    }
+}
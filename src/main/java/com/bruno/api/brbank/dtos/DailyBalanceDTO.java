@@ -0,0 +1,28 @@
+package com.bruno.api.brbank.dtos;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Getter@Setter
+public class DailyBalanceDTO {
+    private LocalDate day;
+    private BigDecimal inflow;
+    private BigDecimal outflow;
+    private Long transferCount;
+    private BigDecimal closingBalance;
+
+    public DailyBalanceDTO(LocalDate day, BigDecimal inflow, BigDecimal outflow, Long transferCount, BigDecimal closingBalance) {
+        this.day = day;
+        this.inflow = inflow;
+        this.outflow = outflow;
+        this.transferCount = transferCount;
+        this.closingBalance = closingBalance;
+    }
+
+    public DailyBalanceDTO(){
+
+    }
+}
@@ -0,0 +1,19 @@
+package com.bruno.api.brbank.dtos;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter@Setter
+public class ImportErrorDTO {
+    private long line;
+    private String message;
+
+    public ImportErrorDTO(long line, String message) {
+        this.line = line;
+        this.message = message;
+    }
+
+    public ImportErrorDTO(){
+
+    }
+}
@@ -0,0 +1,16 @@
+package com.bruno.api.brbank.dtos;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter@Setter
+@JsonPropertyOrder({"imported", "failed", "errors"})
+public class ImportResultDTO {
+    private long imported;
+    private long failed;
+    private List<ImportErrorDTO> errors = new ArrayList<>();
+}
@@ -0,0 +1,40 @@
+package com.bruno.api.brbank.dtos;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Getter@Setter
+@JsonPropertyOrder({"userId", "from", "to", "openingBalance", "closingBalance", "inflow", "outflow", "transferCount", "days"})
+public class StatementDTO {
+    private Long userId;
+    private LocalDate from;
+    private LocalDate to;
+    private BigDecimal openingBalance;
+    private BigDecimal closingBalance;
+    private BigDecimal inflow;
+    private BigDecimal outflow;
+    private Long transferCount;
+    private List<DailyBalanceDTO> days;
+
+    public StatementDTO(Long userId, LocalDate from, LocalDate to, BigDecimal openingBalance, BigDecimal closingBalance,
+                        BigDecimal inflow, BigDecimal outflow, Long transferCount, List<DailyBalanceDTO> days) {
+        this.userId = userId;
+        this.from = from;
+        this.to = to;
+        this.openingBalance = openingBalance;
+        this.closingBalance = closingBalance;
+        this.inflow = inflow;
+        this.outflow = outflow;
+        this.transferCount = transferCount;
+        this.days = days;
+    }
+
+    public StatementDTO(){
+
+    }
+}
@@ -11,9 +11,10 @@ import lombok.Getter;
 import lombok.Setter;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Getter@Setter
-@JsonPropertyOrder({"key", "senderName", "senderId", "recipientName", "recipientId", "value"})
+@JsonPropertyOrder({"key", "senderName", "senderId", "recipientName", "recipientId", "value", "createdAt"})
 public class TransferDTO {
     @JsonProperty("key")
     private Long id;
@@ -22,4 +23,19 @@ public class TransferDTO {
     private String recipientName;
     private Long recipientId;
     private BigDecimal value;
+    private LocalDateTime createdAt;
+
+    public TransferDTO(Long id, String senderName, Long senderId, String recipientName, Long recipientId, BigDecimal value, LocalDateTime createdAt) {
+        this.id = id;
+        this.senderName = senderName;
+        this.senderId = senderId;
+        this.recipientName = recipientName;
+        this.recipientId = recipientId;
+        this.value = value;
+        this.createdAt = createdAt;
+    }
+
+    public TransferDTO(){
+
+    }
 }
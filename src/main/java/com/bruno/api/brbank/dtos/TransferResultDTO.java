@@ -0,0 +1,30 @@
+package com.bruno.api.brbank.dtos;
+
+import com.bruno.api.brbank.enums.TransferStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter@Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"index", "status", "key", "message"})
+public class TransferResultDTO {
+    private int index;
+    private TransferStatus status;
+    @JsonProperty("key")
+    private Long transferId;
+    private String message;
+
+    public TransferResultDTO(int index, TransferStatus status, Long transferId, String message) {
+        this.index = index;
+        this.status = status;
+        this.transferId = transferId;
+        this.message = message;
+    }
+
+    public TransferResultDTO(){
+
+    }
+}
@@ -0,0 +1,32 @@
+package com.bruno.api.brbank.dtos;
+
+import com.bruno.api.brbank.enums.TransferStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter@Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"key", "status", "message", "createdAt"})
+public class TransferStatusDTO {
+    @JsonProperty("key")
+    private Long id;
+    private TransferStatus status;
+    private String message;
+    private LocalDateTime createdAt;
+
+    public TransferStatusDTO(Long id, TransferStatus status, String message, LocalDateTime createdAt) {
+        this.id = id;
+        this.status = status;
+        this.message = message;
+        this.createdAt = createdAt;
+    }
+
+    public TransferStatusDTO(){
+
+    }
+}
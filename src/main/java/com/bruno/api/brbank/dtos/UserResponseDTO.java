@@ -1,5 +1,6 @@
 package com.bruno.api.brbank.dtos;
 
+import com.bruno.api.brbank.enums.UserRole;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
@@ -12,10 +13,33 @@ import org.hibernate.validator.constraints.br.CPF;
 import java.math.BigDecimal;
 
 @Getter@Setter
+@JsonPropertyOrder({"key", "name", "cpf", "email", "balance", "role"})
 public class UserResponseDTO {
+    @JsonProperty("key")
+    private Long id;
     private String name;
     private String cpf;
     private String email;
     private BigDecimal balance;
     private String role;
+    @JsonIgnore
+    private Long version;
+
+    public UserResponseDTO(Long id, String name, String cpf, String email, BigDecimal balance, UserRole role) {
+        this.id = id;
+        this.name = name;
+        this.cpf = cpf;
+        this.email = email;
+        this.balance = balance;
+        this.role = String.valueOf(role);
+    }
+
+    public UserResponseDTO(Long id, String name, String cpf, String email, BigDecimal balance, UserRole role, Long version) {
+        this(id, name, cpf, email, balance, role);
+        this.version = version;
+    }
+
+    public UserResponseDTO(){
+
+    }
 }
@@ -0,0 +1,19 @@
+package com.bruno.api.brbank.dtos;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter@Setter
+public class UserVersionDTO {
+    private Long id;
+    private Long version;
+
+    public UserVersionDTO(Long id, Long version) {
+        this.id = id;
+        this.version = version;
+    }
+
+    public UserVersionDTO(){
+
+    }
+}
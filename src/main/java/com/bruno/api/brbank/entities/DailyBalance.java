@@ -0,0 +1,65 @@
+package com.bruno.api.brbank.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+@Entity
+@Table(name = "daily_balance_tb")
+@IdClass(DailyBalance.Key.class)
+@Getter@Setter
+public class DailyBalance {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+    @Id
+    @Column
+    private LocalDate day;
+    @Column(nullable = false)
+    private BigDecimal inflow;
+    @Column(nullable = false)
+    private BigDecimal outflow;
+    @Column(name = "transfer_count", nullable = false)
+    private Long transferCount;
+    @Column(name = "closing_balance")
+    private BigDecimal closingBalance;
+
+    public DailyBalance(Long userId, LocalDate day) {
+        this.userId = userId;
+        this.day = day;
+        this.inflow = BigDecimal.ZERO;
+        this.outflow = BigDecimal.ZERO;
+        this.transferCount = 0L;
+    }
+
+    public DailyBalance() {
+
+    }
+
+    @Getter@Setter
+    public static class Key implements Serializable {
+        private Long userId;
+        private LocalDate day;
+
+        @Override
+        public boolean equals(Object o) {
+            if(this == o){
+                return true;
+            }
+            if(!(o instanceof Key key)){
+                return false;
+            }
+            return Objects.equals(userId, key.userId) && Objects.equals(day, key.day);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, day);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.bruno.api.brbank.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+@Entity
+@Table(name = "idempotency_keys_tb", indexes = @Index(name = "idx_idempotency_keys_created_at", columnList = "created_at"))
+@Getter@Setter
+public class IdempotencyKey implements Persistable<String> {
+    @Id
+    @Column(name = "idempotency_key", length = 64)
+    private String key;
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+    @Column
+    private Integer responseStatus;
+    @Column(length = 1000)
+    private String responseBody;
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    @Transient
+    private boolean newKey = true;
+
+    public IdempotencyKey(String key, String fingerprint) {
+        this.key = key;
+        this.fingerprint = fingerprint;
+        this.createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    public IdempotencyKey() {
+
+    }
+
+    @Override
+    public String getId() {
+        return key;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newKey;
+    }
+
+    public boolean isCompleted() {
+        return responseStatus != null;
+    }
+
+    @PostPersist
+    @PostLoad
+    void markNotNew(){
+        newKey = false;
+    }
+}
@@ -0,0 +1,25 @@
+package com.bruno.api.brbank.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+@Entity
+@Table(name = "journal_checkpoint_tb")
+@Getter@Setter
+public class JournalCheckpoint {
+    @Id
+    @Column(length = 32)
+    private String name;
+    @Column(nullable = false)
+    private Long sequence;
+
+    public JournalCheckpoint(String name, Long sequence) {
+        this.name = name;
+        this.sequence = sequence;
+    }
+
+    public JournalCheckpoint() {
+
+    }
+}
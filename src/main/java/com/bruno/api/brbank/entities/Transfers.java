@@ -1,28 +1,61 @@
 package com.bruno.api.brbank.entities;
 
+import com.bruno.api.brbank.config.BlockIdGenerator;
 import com.bruno.api.brbank.dtos.TransferRequest;
 import com.bruno.api.brbank.enums.TransferStatus;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.TableGenerator;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transfers_tb")
+@Table(name = "transfers_tb", indexes = {
+        @Index(name = "idx_transfers_sender_history", columnList = "sender_id, id, recipient_id, value, created_at, sender_name, recipient_name"),
+        @Index(name = "idx_transfers_recipient_history", columnList = "recipient_id, id, sender_id, value, created_at, sender_name, recipient_name")
+})
 @Getter@Setter
 public class Transfers {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "transfers_id")
+    @GenericGenerator(name = "transfers_id", type = BlockIdGenerator.class,
+            parameters = @Parameter(name = TableGenerator.SEGMENT_VALUE_PARAM, value = "transfers"))
     private Long id;
-    @Column
+    @Column(name = "sender_name")
     private String senderName;
-    @Column
+    @Column(name = "sender_id")
     private Long senderId;
-    @Column
+    @Column(name = "recipient_name")
     private String recipientName;
-    @Column
+    @Column(name = "recipient_id")
     private Long recipientId;
     @Column
     private BigDecimal value;
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+    @Column(length = 16)
+    @Enumerated(EnumType.STRING)
+    private TransferStatus status;
+    @Column
+    private String message;
+    @Transient
+    private Long journalSequence;
+    @Transient
+    private BigDecimal senderBalance;
+    @Transient
+    private BigDecimal recipientBalance;
+
+    @PrePersist
+    void prePersist(){
+        if(createdAt == null){
+            createdAt = LocalDateTime.now();
+        }
+        if(status == null){
+            status = TransferStatus.EFFECTED;
+        }
+    }
 }
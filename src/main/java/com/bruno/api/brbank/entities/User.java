@@ -1,11 +1,17 @@
 package com.bruno.api.brbank.entities;
 
+import com.bruno.api.brbank.config.BlockIdGenerator;
 import com.bruno.api.brbank.enums.UserRole;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.TableGenerator;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -15,19 +21,23 @@ import java.util.Collection;
 import java.util.List;
 
 @Entity
-@Table(name = "user_tb")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "user_tb", indexes = @Index(name = "idx_user_role_id", columnList = "role, id"))
 @Getter@Setter
 @EqualsAndHashCode(of = "id")
 public class User implements UserDetails{
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "users_id")
+    @GenericGenerator(name = "users_id", type = BlockIdGenerator.class,
+            parameters = @Parameter(name = TableGenerator.SEGMENT_VALUE_PARAM, value = "users"))
     private Long id;
 
     @Column(nullable = false)
     private String name;
-    @Column(nullable = false)
+    @Column(nullable = false, unique = true)
     private String cpf;
-    @Column(nullable = false)
+    @Column(nullable = false, unique = true)
     private String email;
     @Column(nullable = false)
     private String password;
@@ -36,6 +46,10 @@ public class User implements UserDetails{
     private UserRole role;
     @Column
     private BigDecimal balance;
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     public User(Long id, String name, String cpf, String email, String password, UserRole role, BigDecimal balance) {
         this.id = id;
         this.name = name;
@@ -0,0 +1,7 @@
+package com.bruno.api.brbank.enums;
+
+public enum TransferMode {
+    ENTITY,
+    LEDGER,
+    ATOMIC
+}
@@ -1,6 +1,7 @@
 package com.bruno.api.brbank.enums;
 
 public enum TransferStatus {
+    PENDING,
     EFFECTED,
     FAILURE
 }
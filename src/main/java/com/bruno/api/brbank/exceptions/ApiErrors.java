@@ -1,5 +1,6 @@
 package com.bruno.api.brbank.exceptions;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Getter;
 
 import java.util.Collections;
@@ -8,6 +9,9 @@ import java.util.List;
 public class ApiErrors {
     @Getter
     private List<String> errors;
+    @Getter
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<String> codes;
 
     public ApiErrors(String error){
         this.errors = Collections.singletonList(error);
@@ -16,4 +20,9 @@ public class ApiErrors {
     public ApiErrors(List<String> errors){
         this.errors = errors;
     }
+
+    public ApiErrors(List<String> errors, List<String> codes){
+        this.errors = errors;
+        this.codes = codes;
+    }
 }
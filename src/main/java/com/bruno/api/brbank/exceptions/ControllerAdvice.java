@@ -1,6 +1,10 @@
 package com.bruno.api.brbank.exceptions;
 
+import com.bruno.api.brbank.validation.ValidationError;
+import com.bruno.api.brbank.validation.ValidationException;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -17,12 +21,50 @@ public class ControllerAdvice {
         return new ApiErrors(e.getAllErrors().stream().map(DefaultMessageSourceResolvable::getDefaultMessage).collect(Collectors.toList()));
     }
 
+    @ExceptionHandler(ValidationException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ApiErrors validationExceptionHandler(ValidationException e){
+        return new ApiErrors(
+                e.getErrors().stream().map(ValidationError::message).collect(Collectors.toList()),
+                e.getErrors().stream().map(error -> error.code().name()).collect(Collectors.toList()));
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ApiErrors illegalArgumentHandler(IllegalArgumentException e){
         return new ApiErrors(e.getMessage());
     }
 
+    @ExceptionHandler(ServiceUnavailableException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ApiErrors serviceUnavailableHandler(ServiceUnavailableException e){
+        return new ApiErrors(e.getMessage());
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public ApiErrors preconditionFailedHandler(PreconditionFailedException e){
+        return new ApiErrors(e.getMessage());
+    }
+
+    @ExceptionHandler(IdempotencyConflictException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ApiErrors idempotencyConflictHandler(IdempotencyConflictException e){
+        return new ApiErrors(e.getMessage());
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ApiErrors optimisticLockingFailureHandler(OptimisticLockingFailureException e){
+        return new ApiErrors("The user was modified by another request, reload it and try again");
+    }
+
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ApiErrors dataIntegrityViolationHandler(DataIntegrityViolationException e){
+        return new ApiErrors("The request conflicts with an existing record");
+    }
+
     @ExceptionHandler(RuntimeException.class)
     @ResponseStatus(HttpStatus.CONFLICT)
     public ApiErrors runtimeExceptionHandler(RuntimeException e){
@@ -0,0 +1,7 @@
+package com.bruno.api.brbank.exceptions;
+
+public class IdempotencyConflictException extends RuntimeException {
+    public IdempotencyConflictException(String message) {
+        super(message);
+    }
+}
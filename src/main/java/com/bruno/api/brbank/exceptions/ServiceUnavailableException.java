@@ -0,0 +1,7 @@
+package com.bruno.api.brbank.exceptions;
+
+public class ServiceUnavailableException extends RuntimeException {
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
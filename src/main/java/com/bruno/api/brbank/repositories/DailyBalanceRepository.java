@@ -0,0 +1,16 @@
+package com.bruno.api.brbank.repositories;
+
+import com.bruno.api.brbank.entities.DailyBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface DailyBalanceRepository extends JpaRepository<DailyBalance, DailyBalance.Key>, DailyBalanceRepositoryCustom {
+    Optional<DailyBalance> findFirstByUserIdAndDayLessThanEqualOrderByDayDesc(Long userId, LocalDate day);
+
+    Optional<DailyBalance> findFirstByUserIdAndDayGreaterThanOrderByDayAsc(Long userId, LocalDate day);
+
+    List<DailyBalance> findByUserIdAndDayBetweenOrderByDayAsc(Long userId, LocalDate from, LocalDate to);
+}
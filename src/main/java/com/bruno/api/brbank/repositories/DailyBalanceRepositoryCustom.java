@@ -0,0 +1,9 @@
+package com.bruno.api.brbank.repositories;
+
+import com.bruno.api.brbank.entities.DailyBalance;
+
+import java.util.Collection;
+
+public interface DailyBalanceRepositoryCustom {
+    void addAll(Collection<DailyBalance> deltas);
+}
@@ -0,0 +1,38 @@
+package com.bruno.api.brbank.repositories;
+
+import com.bruno.api.brbank.entities.DailyBalance;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class DailyBalanceRepositoryCustomImpl implements DailyBalanceRepositoryCustom {
+
+    private static final String UPSERT = "INSERT INTO daily_balance_tb (user_id, day, inflow, outflow, transfer_count, closing_balance) " +
+            "SELECT * FROM (SELECT ? AS user_id, ? AS day, ? AS inflow, ? AS outflow, ? AS transfer_count, COALESCE(?, u.balance) AS closing_balance " +
+            "FROM user_tb u WHERE u.id = ?) AS new " +
+            "ON DUPLICATE KEY UPDATE " +
+            "closing_balance = new.closing_balance, " +
+            "inflow = daily_balance_tb.inflow + new.inflow, " +
+            "outflow = daily_balance_tb.outflow + new.outflow, " +
+            "transfer_count = daily_balance_tb.transfer_count + new.transfer_count";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void addAll(Collection<DailyBalance> deltas) {
+        if(deltas.isEmpty()){
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        for (DailyBalance delta : deltas) {
+            args.add(new Object[]{delta.getUserId(), Date.valueOf(delta.getDay()), delta.getInflow(), delta.getOutflow(),
+                    delta.getTransferCount(), delta.getClosingBalance(), delta.getUserId()});
+        }
+        jdbcTemplate.batchUpdate(UPSERT, args);
+    }
+}
@@ -0,0 +1,32 @@
+package com.bruno.api.brbank.repositories;
+
+import com.bruno.api.brbank.entities.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyKey k WHERE k.createdAt < :createdAt")
+    int deleteCreatedBefore(LocalDateTime createdAt);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyKey k SET k.fingerprint = :fingerprint, k.createdAt = :createdAt " +
+            "WHERE k.key = :key AND k.responseStatus IS NULL AND k.createdAt < :staleBefore")
+    int reclaim(String key, String fingerprint, LocalDateTime createdAt, LocalDateTime staleBefore);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE IdempotencyKey k SET k.responseStatus = :responseStatus, k.responseBody = :responseBody " +
+            "WHERE k.key = :key AND k.responseStatus IS NULL AND k.createdAt = :reservedAt")
+    int complete(String key, LocalDateTime reservedAt, Integer responseStatus, String responseBody);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyKey k WHERE k.key = :key AND k.responseStatus IS NULL AND k.createdAt = :reservedAt")
+    int release(String key, LocalDateTime reservedAt);
+}
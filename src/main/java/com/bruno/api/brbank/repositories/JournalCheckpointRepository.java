@@ -0,0 +1,7 @@
+package com.bruno.api.brbank.repositories;
+
+import com.bruno.api.brbank.entities.JournalCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface JournalCheckpointRepository extends JpaRepository<JournalCheckpoint, String> {
+}
@@ -1,7 +1,39 @@
 package com.bruno.api.brbank.repositories;
 
+import com.bruno.api.brbank.dtos.TransferDTO;
 import com.bruno.api.brbank.entities.Transfers;
+import com.bruno.api.brbank.enums.TransferStatus;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
-public interface TransferRepository extends JpaRepository<Transfers, Long> {
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface TransferRepository extends JpaRepository<Transfers, Long>, TransferRepositoryCustom {
+    @Query("SELECT new com.bruno.api.brbank.dtos.TransferDTO(t.id, t.senderName, t.senderId, t.recipientName, t.recipientId, t.value, t.createdAt) " +
+            "FROM Transfers t WHERE t.senderId = :userId AND t.id < :cursor ORDER BY t.id DESC")
+    List<TransferDTO> findSentBefore(Long userId, Long cursor, Pageable pageable);
+
+    @Query("SELECT new com.bruno.api.brbank.dtos.TransferDTO(t.id, t.senderName, t.senderId, t.recipientName, t.recipientId, t.value, t.createdAt) " +
+            "FROM Transfers t WHERE t.recipientId = :userId AND t.id < :cursor ORDER BY t.id DESC")
+    List<TransferDTO> findReceivedBefore(Long userId, Long cursor, Pageable pageable);
+
+    @Query("SELECT t.id FROM Transfers t WHERE t.status = :status AND t.id > :cursor ORDER BY t.id")
+    List<Long> findIdsByStatusAfter(TransferStatus status, Long cursor, Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Transfers t WHERE t.id IN :ids AND t.status = com.bruno.api.brbank.enums.TransferStatus.PENDING ORDER BY t.id")
+    List<Transfers> findPendingByIdIn(Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "INSERT INTO transfers_tb (id, sender_id, sender_name, recipient_id, recipient_name, value, created_at, status) " +
+            "SELECT :id, s.id, s.name, r.id, r.name, :value, :createdAt, 'EFFECTED' FROM user_tb s, user_tb r " +
+            "WHERE s.id = :senderId AND r.id = :recipientId", nativeQuery = true)
+    int insertBetween(Long id, Long senderId, Long recipientId, BigDecimal value, LocalDateTime createdAt);
 }
@@ -0,0 +1,12 @@
+package com.bruno.api.brbank.repositories;
+
+import com.bruno.api.brbank.entities.Transfers;
+
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+public interface TransferRepositoryCustom {
+    Long nextId();
+
+    void scanTransfers(Long userId, LocalDateTime from, LocalDateTime to, Consumer<Transfers> handler);
+}
@@ -0,0 +1,79 @@
+package com.bruno.api.brbank.repositories;
+
+import com.bruno.api.brbank.entities.Transfers;
+import com.bruno.api.brbank.enums.TransferStatus;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.Generator;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+@RequiredArgsConstructor
+public class TransferRepositoryCustomImpl implements TransferRepositoryCustom {
+
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Long nextId() {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        Generator generator = session.getFactory().getMappingMetamodel().getEntityDescriptor(Transfers.class).getGenerator();
+        if(!(generator instanceof BeforeExecutionGenerator beforeExecution)){
+            throw new IllegalStateException("Transfer ids must be generated before the insert");
+        }
+        return (Long) beforeExecution.generate(session, null, null, EventType.INSERT);
+    }
+
+    @Override
+    public void scanTransfers(Long userId, LocalDateTime from, LocalDateTime to, Consumer<Transfers> handler) {
+        StringBuilder sql = new StringBuilder("SELECT id, sender_id, sender_name, recipient_id, recipient_name, value, created_at, status, message FROM transfers_tb WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if(userId != null){
+            sql.append(" AND (sender_id = ? OR recipient_id = ?)");
+            args.add(userId);
+            args.add(userId);
+        }
+        if(from != null){
+            sql.append(" AND created_at >= ?");
+            args.add(Timestamp.valueOf(from));
+        }
+        if(to != null){
+            sql.append(" AND created_at < ?");
+            args.add(Timestamp.valueOf(to));
+        }
+        sql.append(" ORDER BY id");
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(Integer.MIN_VALUE);
+            for (int i = 0; i < args.size(); i++) {
+                statement.setObject(i + 1, args.get(i));
+            }
+            return statement;
+        }, (RowCallbackHandler) row -> {
+            Transfers transfer = new Transfers();
+            transfer.setId(row.getLong("id"));
+            transfer.setSenderId(row.getObject("sender_id", Long.class));
+            transfer.setSenderName(row.getString("sender_name"));
+            transfer.setRecipientId(row.getObject("recipient_id", Long.class));
+            transfer.setRecipientName(row.getString("recipient_name"));
+            transfer.setValue(row.getBigDecimal("value"));
+            Timestamp createdAt = row.getTimestamp("created_at");
+            transfer.setCreatedAt(createdAt == null ? null : createdAt.toLocalDateTime());
+            String status = row.getString("status");
+            transfer.setStatus(status == null ? null : TransferStatus.valueOf(status));
+            transfer.setMessage(row.getString("message"));
+            handler.accept(transfer);
+        });
+    }
+}
@@ -1,13 +1,26 @@
 package com.bruno.api.brbank.repositories;
 
+import com.bruno.api.brbank.dtos.UserResponseDTO;
+import com.bruno.api.brbank.dtos.UserVersionDTO;
 import com.bruno.api.brbank.entities.User;
+import com.bruno.api.brbank.enums.UserRole;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
     Boolean existsByCpfOrEmail(String cpf, String email);
     boolean existsByEmail(String email);
     boolean existsByCpf(String cpf);
@@ -15,4 +28,39 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByCpf(String cpf);
     @Query("SELECT u FROM User u WHERE u.email = :email")
     UserDetails findByLogin(String email);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<User> findByIdInOrderByIdAsc(Collection<Long> ids);
+    @Query("SELECT new com.bruno.api.brbank.dtos.UserResponseDTO(u.id, u.name, u.cpf, u.email, u.balance, u.role) " +
+            "FROM User u WHERE u.id > :cursor ORDER BY u.id")
+    List<UserResponseDTO> findPageAfter(Long cursor, Pageable pageable);
+    @Query("SELECT new com.bruno.api.brbank.dtos.UserResponseDTO(u.id, u.name, u.cpf, u.email, u.balance, u.role) " +
+            "FROM User u WHERE u.role = :role AND u.id > :cursor ORDER BY u.id")
+    List<UserResponseDTO> findPageByRoleAfter(UserRole role, Long cursor, Pageable pageable);
+    @Query("SELECT new com.bruno.api.brbank.dtos.UserResponseDTO(u.id, u.name, u.cpf, u.email, u.balance, u.role, u.version) " +
+            "FROM User u WHERE u.id = :id")
+    Optional<UserResponseDTO> findResponseById(Long id);
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_CACHE_STORE_MODE, value = "REFRESH"))
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    Optional<User> findFreshById(Long id);
+    @Query("SELECT u.balance FROM User u WHERE u.id = :id")
+    Optional<BigDecimal> findBalanceById(Long id);
+    @Query("SELECT new com.bruno.api.brbank.dtos.UserVersionDTO(u.id, u.version) FROM User u WHERE u.id > :cursor ORDER BY u.id")
+    List<UserVersionDTO> findVersionsAfter(Long cursor, Pageable pageable);
+    @Query("SELECT new com.bruno.api.brbank.dtos.UserVersionDTO(u.id, u.version) FROM User u WHERE u.role = :role AND u.id > :cursor ORDER BY u.id")
+    List<UserVersionDTO> findVersionsByRoleAfter(UserRole role, Long cursor, Pageable pageable);
+    @Query("SELECT u.id FROM User u WHERE u.cpf = :cpf")
+    Optional<Long> findIdByCpf(String cpf);
+    @Query("SELECT u.id FROM User u WHERE u.email = :email")
+    Optional<Long> findIdByEmail(String email);
+    @Query("SELECT u.cpf FROM User u WHERE u.cpf IN :cpfs")
+    List<String> findCpfsIn(Collection<String> cpfs);
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findEmailsIn(Collection<String> emails);
+    @Modifying
+    @Query("UPDATE User u SET u.balance = u.balance - :value, u.version = u.version + 1 " +
+            "WHERE u.id = :id AND u.balance >= :value AND u.role <> com.bruno.api.brbank.enums.UserRole.MERCHANT")
+    int debit(Long id, BigDecimal value);
+    @Modifying
+    @Query("UPDATE User u SET u.balance = u.balance + :value, u.version = u.version + 1 WHERE u.id = :id")
+    int credit(Long id, BigDecimal value);
 }
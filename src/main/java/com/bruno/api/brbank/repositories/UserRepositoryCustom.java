@@ -0,0 +1,17 @@
+package com.bruno.api.brbank.repositories;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
+
+public interface UserRepositoryCustom {
+    void updateBalances(Map<Long, BigDecimal> balances);
+
+    void evictCached(Collection<Long> ids);
+
+    void scanUniqueKeys(UniqueKeyHandler handler);
+
+    interface UniqueKeyHandler {
+        void accept(Long id, String cpf, String email);
+    }
+}
@@ -0,0 +1,74 @@
+package com.bruno.api.brbank.repositories;
+
+import com.bruno.api.brbank.config.CacheConfig;
+import com.bruno.api.brbank.entities.User;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheManager cacheManager;
+
+    @Override
+    public void updateBalances(Map<Long, BigDecimal> balances) {
+        if(balances.isEmpty()){
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(balances.size());
+        balances.forEach((id, balance) -> args.add(new Object[]{balance, id}));
+        jdbcTemplate.batchUpdate("UPDATE user_tb SET balance = ?, version = version + 1 WHERE id = ?", args);
+        evictCached(balances.keySet());
+    }
+
+    @Override
+    public void evictCached(Collection<Long> ids) {
+        List<Long> evicted = List.copyOf(ids);
+        evict(evicted);
+        if(TransactionSynchronizationManager.isSynchronizationActive()){
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(evicted);
+                }
+            });
+        }
+    }
+
+    private void evict(List<Long> ids) {
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        var users = cacheManager.getCache(CacheConfig.USERS);
+        for (Long id : ids) {
+            cache.evict(User.class, id);
+            if(users != null){
+                users.evict(id);
+            }
+        }
+    }
+
+    @Override
+    public void scanUniqueKeys(UniqueKeyHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement("SELECT id, cpf, email FROM user_tb",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(Integer.MIN_VALUE);
+            return statement;
+        }, (RowCallbackHandler) row -> handler.accept(row.getLong("id"), row.getString("cpf"), row.getString("email")));
+    }
+}
@@ -0,0 +1,8 @@
+package com.bruno.api.brbank.services;
+
+import com.bruno.api.brbank.dtos.TransferRequest;
+
+public interface AsyncTransferService {
+    boolean isEnabled();
+    Long submit(TransferRequest request);
+}
@@ -0,0 +1,14 @@
+package com.bruno.api.brbank.services;
+
+import com.bruno.api.brbank.dtos.StatementDTO;
+import com.bruno.api.brbank.entities.Transfers;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DailyBalanceService {
+    void record(List<Transfers> transfers);
+    BigDecimal balanceAt(Long userId, LocalDate day);
+    StatementDTO statement(Long userId, LocalDate from, LocalDate to);
+}
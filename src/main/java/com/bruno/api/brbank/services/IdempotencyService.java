@@ -0,0 +1,10 @@
+package com.bruno.api.brbank.services;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.function.Supplier;
+
+public interface IdempotencyService {
+    ResponseEntity<String> execute(String principal, String key, String request, Supplier<ResponseEntity<String>> action);
+    ResponseEntity<String> executeNonTransactional(String principal, String key, String request, Supplier<ResponseEntity<String>> action);
+}
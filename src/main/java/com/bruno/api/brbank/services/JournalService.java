@@ -0,0 +1,28 @@
+package com.bruno.api.brbank.services;
+
+import com.bruno.api.brbank.entities.Transfers;
+import com.bruno.api.brbank.entities.User;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public interface JournalService {
+    boolean isEnabled();
+    long append(Transfers transfer, User sender, User recipient);
+    long appendEviction(Long userId);
+    void awaitDurable(long sequence);
+    long lastSequence();
+    Recovery recover(long flushedSequence);
+    void snapshot(long sequence, Collection<User> accounts, long flushedSequence);
+
+    record Recovery(long lastSequence, Map<Long, User> accounts, List<Transfers> transfers) {
+        public Map<Long, BigDecimal> balances() {
+            Map<Long, BigDecimal> balances = new HashMap<>();
+            accounts.forEach((id, account) -> balances.put(id, account.getBalance()));
+            return balances;
+        }
+    }
+}
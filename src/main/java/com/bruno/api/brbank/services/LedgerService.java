@@ -0,0 +1,22 @@
+package com.bruno.api.brbank.services;
+
+import com.bruno.api.brbank.dtos.TransferRequest;
+import com.bruno.api.brbank.dtos.TransferResultDTO;
+import com.bruno.api.brbank.entities.Transfers;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+public interface LedgerService {
+    boolean isEnabled();
+
+    Transfers transfer(TransferRequest request);
+
+    List<TransferResultDTO> transferAll(List<TransferRequest> requests);
+
+    <T> T exclusive(Long userId, Supplier<T> action);
+
+    void flush();
+
+    void snapshot();
+}
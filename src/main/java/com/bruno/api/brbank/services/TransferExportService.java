@@ -0,0 +1,13 @@
+package com.bruno.api.brbank.services;
+
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+public interface TransferExportService {
+    MediaType contentType(String format);
+    void validPeriod(LocalDate from, LocalDate to);
+    void export(Long userId, LocalDate from, LocalDate to, MediaType contentType, OutputStream output) throws IOException;
+}
@@ -1,12 +1,28 @@
 package com.bruno.api.brbank.services;
 
+import com.bruno.api.brbank.dtos.CursorPageDTO;
 import com.bruno.api.brbank.dtos.TransferDTO;
 import com.bruno.api.brbank.dtos.TransferRequest;
+import com.bruno.api.brbank.dtos.TransferResultDTO;
+import com.bruno.api.brbank.dtos.TransferStatusDTO;
 import com.bruno.api.brbank.entities.Transfers;
 import com.bruno.api.brbank.entities.User;
 
+import java.util.List;
+
 public interface TransferService {
+    boolean isAtomic();
+    void transfer(TransferRequest request);
     void createTransfer(TransferRequest request, User sender, User recipient);
+    void transferAtomically(TransferRequest request);
+    List<TransferResultDTO> createTransfers(List<TransferRequest> requests);
+    Long createPending(TransferRequest request);
+    void settlePending(List<Long> transferIds);
+    void failPending(Long transferId, String message);
+    TransferStatusDTO findStatus(Long transferId);
     void validTransferRequest(TransferRequest transferRequest, User sender);
+    void validRequestConstraints(TransferRequest transferRequest);
+    void validBatchSize(List<TransferRequest> requests);
     void save(TransferDTO transfers);
+    CursorPageDTO<TransferDTO> findHistory(Long userId, Long cursor, int size);
 }
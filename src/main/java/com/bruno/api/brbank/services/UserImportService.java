@@ -0,0 +1,10 @@
+package com.bruno.api.brbank.services;
+
+import com.bruno.api.brbank.dtos.ImportResultDTO;
+import org.springframework.http.MediaType;
+
+import java.io.InputStream;
+
+public interface UserImportService {
+    ImportResultDTO importUsers(InputStream input, MediaType contentType);
+}
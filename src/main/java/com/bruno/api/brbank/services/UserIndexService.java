@@ -0,0 +1,13 @@
+package com.bruno.api.brbank.services;
+
+import com.bruno.api.brbank.entities.User;
+
+public interface UserIndexService {
+    Long findIdByCpf(String cpf);
+
+    Long findIdByEmail(String email);
+
+    void put(User user);
+
+    void remove(User user);
+}
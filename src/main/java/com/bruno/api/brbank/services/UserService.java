@@ -1,7 +1,9 @@
 package com.bruno.api.brbank.services;
 
+import com.bruno.api.brbank.dtos.CursorPageDTO;
 import com.bruno.api.brbank.dtos.TransferRequest;
 import com.bruno.api.brbank.dtos.UserDTO;
+import com.bruno.api.brbank.dtos.UserResponseDTO;
 import com.bruno.api.brbank.entities.User;
 import com.bruno.api.brbank.enums.UserRole;
 import org.springframework.beans.BeanUtils;
@@ -17,8 +19,19 @@ public interface UserService extends UserDetailsService {
 
     List<User> findAll();
 
+    CursorPageDTO<UserResponseDTO> findPage(Long cursor, String role, int size);
+
     Optional<User> findById(Long senderId);
 
+    Optional<User> findFreshById(Long id);
+
+    Optional<UserResponseDTO> findResponseById(Long id);
+
+    Optional<UserResponseDTO> findCachedResponse(Long id);
+
+
+    String pageTag(Long cursor, String role, int size);
+
     boolean existsByCpfOrEmail(String cpf, String email);
     boolean existsByEmail(String email);
     boolean existsByCpf(String cpf);
@@ -34,6 +47,12 @@ public interface UserService extends UserDetailsService {
 
     void validDtoToSave(UserDTO dto);
 
+    void validDtoFields(UserDTO dto);
+
+    void validUniqueness(UserDTO dto, Long id);
+
+    User update(User current, User updated);
+
     void updateValidation(UserDTO dto);
 
     User findByEmailAndPassword(String login, String password);
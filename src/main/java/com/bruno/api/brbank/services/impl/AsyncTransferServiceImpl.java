@@ -0,0 +1,150 @@
+package com.bruno.api.brbank.services.impl;
+
+import com.bruno.api.brbank.dtos.TransferRequest;
+import com.bruno.api.brbank.enums.TransferMode;
+import com.bruno.api.brbank.enums.TransferStatus;
+import com.bruno.api.brbank.exceptions.ServiceUnavailableException;
+import com.bruno.api.brbank.repositories.TransferRepository;
+import com.bruno.api.brbank.services.AsyncTransferService;
+import com.bruno.api.brbank.services.TransferService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Service
+public class AsyncTransferServiceImpl implements AsyncTransferService {
+
+    private final TransferService transferService;
+    private final TransferRepository transferRepository;
+    private final boolean enabled;
+    private final int workers;
+    private final int batchSize;
+    private final BlockingQueue<Long> queue;
+    private ExecutorService executor;
+    private volatile boolean running;
+
+    public AsyncTransferServiceImpl(TransferService transferService,
+                                    TransferRepository transferRepository,
+                                    @Value("${bank.transfer.mode:ENTITY}") TransferMode mode,
+                                    @Value("${bank.transfer.async.enabled:false}") boolean enabled,
+                                    @Value("${bank.transfer.async.queue-capacity:10000}") int queueCapacity,
+                                    @Value("${bank.transfer.async.workers:2}") int workers,
+                                    @Value("${bank.transfer.async.batch-size:200}") int batchSize) {
+        this.transferService = transferService;
+        this.transferRepository = transferRepository;
+        this.enabled = enabled && mode != TransferMode.LEDGER;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    void start() {
+        if(!enabled) {
+            return;
+        }
+        List<Long> pending;
+        long cursor = 0;
+        while (!(pending = transferRepository.findIdsByStatusAfter(TransferStatus.PENDING, cursor, PageRequest.of(0, batchSize))).isEmpty()) {
+            settle(pending);
+            cursor = pending.get(pending.size() - 1);
+        }
+        running = true;
+        executor = Executors.newFixedThreadPool(workers, new CustomizableThreadFactory("transfer-worker-"));
+        for (int i = 0; i < workers; i++) {
+            executor.execute(this::work);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        if(executor == null) {
+            return;
+        }
+        running = false;
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public Long submit(TransferRequest request) {
+        if(queue.remainingCapacity() == 0) {
+            throw new ServiceUnavailableException("Too many transfers waiting to be processed, try again later");
+        }
+        Long id = transferService.createPending(request);
+        if(TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(id);
+                }
+            });
+        }
+        else {
+            enqueue(id);
+        }
+        return id;
+    }
+
+    private void enqueue(Long id) {
+        if(!queue.offer(id)) {
+            transferService.failPending(id, "The transfer queue was full");
+            throw new ServiceUnavailableException("Too many transfers waiting to be processed, try again later");
+        }
+    }
+
+    private void work() {
+        List<Long> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Long first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if(first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                settle(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void settle(List<Long> batch) {
+        try {
+            transferService.settlePending(batch);
+        } catch (RuntimeException e) {
+            log.warn("Settling a batch of {} transfers failed, retrying them one by one", batch.size(), e);
+            for (Long id : batch) {
+                try {
+                    transferService.settlePending(List.of(id));
+                } catch (RuntimeException single) {
+                    log.error("Transfer {} could not be settled, it stays pending until the next restart", id, single);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.bruno.api.brbank.services.impl;
+
+import com.bruno.api.brbank.config.ReadWriteRoutingDataSource;
+import com.bruno.api.brbank.config.ReplicaLagGuard;
+import com.bruno.api.brbank.dtos.DailyBalanceDTO;
+import com.bruno.api.brbank.dtos.StatementDTO;
+import com.bruno.api.brbank.entities.DailyBalance;
+import com.bruno.api.brbank.entities.Transfers;
+import com.bruno.api.brbank.enums.TransferStatus;
+import com.bruno.api.brbank.repositories.DailyBalanceRepository;
+import com.bruno.api.brbank.repositories.UserRepository;
+import com.bruno.api.brbank.services.DailyBalanceService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+public class DailyBalanceServiceImpl implements DailyBalanceService {
+
+    private final DailyBalanceRepository repository;
+    private final UserRepository userRepository;
+    private final ReplicaLagGuard replicaLagGuard;
+
+    @Value("${bank.statement.max-days:366}")
+    private int maxDays;
+
+    @Override
+    @Transactional
+    public void record(List<Transfers> transfers) {
+        Map<Slot, DailyBalance> deltas = new LinkedHashMap<>();
+        for (Transfers transfer : transfers) {
+            if(transfer.getStatus() != TransferStatus.EFFECTED){
+                continue;
+            }
+            LocalDate day = transfer.getCreatedAt().toLocalDate();
+            DailyBalance sent = deltas.computeIfAbsent(new Slot(transfer.getSenderId(), day), slot -> new DailyBalance(slot.userId(), slot.day()));
+            sent.setOutflow(sent.getOutflow().add(transfer.getValue()));
+            move(sent, transfer.getSenderBalance());
+            DailyBalance received = deltas.computeIfAbsent(new Slot(transfer.getRecipientId(), day), slot -> new DailyBalance(slot.userId(), slot.day()));
+            received.setInflow(received.getInflow().add(transfer.getValue()));
+            move(received, transfer.getRecipientBalance());
+        }
+        repository.addAll(deltas.values());
+    }
+
+    @Override
+    @Transactional(readOnly = true, label = ReadWriteRoutingDataSource.REPLICA)
+    public BigDecimal balanceAt(Long userId, LocalDate day) {
+        replicaLagGuard.reading(userId);
+        Optional<DailyBalance> before = repository.findFirstByUserIdAndDayLessThanEqualOrderByDayDesc(userId, day);
+        if(before.isPresent()){
+            return before.get().getClosingBalance();
+        }
+        Optional<DailyBalance> after = repository.findFirstByUserIdAndDayGreaterThanOrderByDayAsc(userId, day);
+        if(after.isPresent()){
+            return opening(after.get());
+        }
+        return userRepository.findBalanceById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User not exists"));
+    }
+
+    @Override
+    @Transactional(readOnly = true, label = ReadWriteRoutingDataSource.REPLICA)
+    public StatementDTO statement(Long userId, LocalDate from, LocalDate to) {
+        if(from == null || to == null || from.isAfter(to)){
+            throw new IllegalArgumentException("The statement period must have a start date before its end date");
+        }
+        if(ChronoUnit.DAYS.between(from, to) >= maxDays){
+            throw new IllegalArgumentException("The statement period cannot be longer than " + maxDays + " days");
+        }
+        replicaLagGuard.reading(userId);
+        List<DailyBalance> rollups = repository.findByUserIdAndDayBetweenOrderByDayAsc(userId, from, to);
+        BigDecimal opening = rollups.isEmpty() ? balanceAt(userId, from.minusDays(1)) : null;
+        BigDecimal inflow = BigDecimal.ZERO;
+        BigDecimal outflow = BigDecimal.ZERO;
+        long count = 0;
+        List<DailyBalanceDTO> days = new ArrayList<>(rollups.size());
+        for (DailyBalance rollup : rollups) {
+            if(opening == null){
+                opening = opening(rollup);
+            }
+            inflow = inflow.add(rollup.getInflow());
+            outflow = outflow.add(rollup.getOutflow());
+            count += rollup.getTransferCount();
+            days.add(new DailyBalanceDTO(rollup.getDay(), rollup.getInflow(), rollup.getOutflow(), rollup.getTransferCount(), rollup.getClosingBalance()));
+        }
+        BigDecimal closing = rollups.isEmpty() ? opening : rollups.get(rollups.size() - 1).getClosingBalance();
+        return new StatementDTO(userId, from, to, opening, closing, inflow, outflow, count, days);
+    }
+
+    private void move(DailyBalance delta, BigDecimal balance) {
+        delta.setTransferCount(delta.getTransferCount() + 1);
+        delta.setClosingBalance(balance);
+    }
+
+    private BigDecimal opening(DailyBalance rollup) {
+        return rollup.getClosingBalance().subtract(rollup.getInflow()).add(rollup.getOutflow());
+    }
+
+    private record Slot(Long userId, LocalDate day) {
+    }
+}
@@ -0,0 +1,157 @@
+package com.bruno.api.brbank.services.impl;
+
+import com.bruno.api.brbank.entities.IdempotencyKey;
+import com.bruno.api.brbank.exceptions.IdempotencyConflictException;
+import com.bruno.api.brbank.repositories.IdempotencyKeyRepository;
+import com.bruno.api.brbank.services.IdempotencyService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private final IdempotencyKeyRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<String, IdempotencyKey> recentKeys;
+    private final Duration retention;
+    private final Duration lease;
+
+    public IdempotencyServiceImpl(IdempotencyKeyRepository repository,
+                                  TransactionTemplate transactionTemplate,
+                                  @Value("${bank.idempotency.cache.max-size:100000}") long cacheMaxSize,
+                                  @Value("${bank.idempotency.retention:24h}") Duration retention,
+                                  @Value("${bank.idempotency.lease:60s}") Duration lease) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(Objects.requireNonNull(transactionTemplate.getTransactionManager()));
+        this.transactionTemplate.setTimeout((int) lease.toSeconds());
+        this.retention = retention;
+        this.lease = lease;
+        this.recentKeys = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(retention)
+                .build();
+    }
+
+    @Override
+    public ResponseEntity<String> execute(String principal, String key, String request, Supplier<ResponseEntity<String>> action) {
+        return execute(principal, key, request, action, true);
+    }
+
+    @Override
+    public ResponseEntity<String> executeNonTransactional(String principal, String key, String request, Supplier<ResponseEntity<String>> action) {
+        return execute(principal, key, request, action, false);
+    }
+
+    private ResponseEntity<String> execute(String principal, String key, String request, Supplier<ResponseEntity<String>> action, boolean transactional) {
+        if(key == null){
+            return action.get();
+        }
+        if(key.isBlank() || key.length() > 64){
+            throw new IllegalArgumentException("The Idempotency-Key must have between 1 and 64 characters");
+        }
+        String id = sha256((principal == null ? "" : principal) + '\n' + key);
+        String fingerprint = sha256(request);
+        IdempotencyKey recent = recentKeys.getIfPresent(id);
+        if(recent != null){
+            return replay(recent, fingerprint);
+        }
+        IdempotencyKey reservation = new IdempotencyKey(id, fingerprint);
+        LocalDateTime reservedAt = reservation.getCreatedAt();
+        try {
+            repository.saveAndFlush(reservation);
+        } catch (DataIntegrityViolationException e){
+            IdempotencyKey stored = repository.findById(id).orElseThrow(() -> e);
+            if(stored.isCompleted()){
+                recentKeys.put(id, stored);
+                return replay(stored, fingerprint);
+            }
+            if(!transactional || repository.reclaim(id, fingerprint, reservedAt, reservedAt.minus(lease)) == 0){
+                throw new IdempotencyConflictException("A request with this Idempotency-Key is still being processed");
+            }
+        }
+
+        ResponseEntity<String> response = transactional ? runInTransaction(id, reservedAt, action) : runOnce(id, reservedAt, action);
+        if(!response.getStatusCode().is2xxSuccessful()){
+            return response;
+        }
+        reservation.setResponseStatus(response.getStatusCode().value());
+        reservation.setResponseBody(response.getBody());
+        recentKeys.put(id, reservation);
+        return response;
+    }
+
+    private ResponseEntity<String> runInTransaction(String id, LocalDateTime reservedAt, Supplier<ResponseEntity<String>> action){
+        ResponseEntity<String> response;
+        try {
+            response = transactionTemplate.execute(status -> {
+                ResponseEntity<String> result = action.get();
+                if(!result.getStatusCode().is2xxSuccessful()){
+                    status.setRollbackOnly();
+                }
+                else if(repository.complete(id, reservedAt, result.getStatusCode().value(), result.getBody()) == 0){
+                    throw new IdempotencyConflictException("The Idempotency-Key reservation expired before the request completed");
+                }
+                return result;
+            });
+        } catch (RuntimeException e){
+            repository.release(id, reservedAt);
+            throw e;
+        }
+        if(!response.getStatusCode().is2xxSuccessful()){
+            repository.release(id, reservedAt);
+        }
+        return response;
+    }
+
+    private ResponseEntity<String> runOnce(String id, LocalDateTime reservedAt, Supplier<ResponseEntity<String>> action){
+        ResponseEntity<String> response;
+        try {
+            response = action.get();
+        } catch (IllegalArgumentException e){
+            repository.release(id, reservedAt);
+            throw e;
+        }
+        if(!response.getStatusCode().is2xxSuccessful()){
+            repository.release(id, reservedAt);
+            return response;
+        }
+        transactionTemplate.executeWithoutResult(status -> repository.complete(id, reservedAt, response.getStatusCode().value(), response.getBody()));
+        return response;
+    }
+
+    @Scheduled(fixedDelayString = "${bank.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpiredKeys(){
+        repository.deleteCreatedBefore(LocalDateTime.now().minus(retention));
+    }
+
+    private String sha256(String value){
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e){
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private ResponseEntity<String> replay(IdempotencyKey stored, String fingerprint){
+        if(!Objects.equals(stored.getFingerprint(), fingerprint)){
+            throw new IllegalArgumentException("This Idempotency-Key was already used with a different request");
+        }
+        return ResponseEntity.status(stored.getResponseStatus()).body(stored.getResponseBody());
+    }
+}
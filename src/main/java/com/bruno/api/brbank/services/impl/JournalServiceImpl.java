@@ -0,0 +1,477 @@
+package com.bruno.api.brbank.services.impl;
+
+import com.bruno.api.brbank.entities.Transfers;
+import com.bruno.api.brbank.entities.User;
+import com.bruno.api.brbank.enums.TransferMode;
+import com.bruno.api.brbank.enums.TransferStatus;
+import com.bruno.api.brbank.enums.UserRole;
+import com.bruno.api.brbank.services.JournalService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+@Slf4j
+@Service
+public class JournalServiceImpl implements JournalService {
+
+    private static final byte TRANSFER = 1;
+    private static final byte EVICTION = 2;
+    private static final int RECORD_HEADER_SIZE = 16;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean sync;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private MappedByteBuffer segment;
+    private long segmentFirstSequence = -1;
+    private int syncedPosition;
+    private long sequence;
+    private volatile long durableSequence;
+
+    public JournalServiceImpl(@Value("${bank.transfer.mode:ENTITY}") TransferMode mode,
+                              @Value("${bank.journal.enabled:false}") boolean enabled,
+                              @Value("${bank.journal.directory:journal}") Path directory,
+                              @Value("${bank.journal.segment-size:64MB}") DataSize segmentSize,
+                              @Value("${bank.journal.sync:true}") boolean sync) {
+        this.enabled = enabled && mode == TransferMode.LEDGER;
+        this.directory = directory;
+        this.segmentSize = Math.toIntExact(segmentSize.toBytes());
+        this.sync = sync;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public long append(Transfers transfer, User sender, User recipient) {
+        byte[] payload = encode(out -> {
+            out.writeByte(TRANSFER);
+            out.writeLong(transfer.getSenderId());
+            out.writeLong(transfer.getRecipientId());
+            out.writeLong(transfer.getCreatedAt().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(transfer.getCreatedAt().getNano());
+            writeDecimal(out, transfer.getValue());
+            writeDecimal(out, transfer.getSenderBalance());
+            writeDecimal(out, transfer.getRecipientBalance());
+            writeString(out, transfer.getSenderName());
+            writeString(out, transfer.getRecipientName());
+            writeRole(out, sender.getRole());
+            writeRole(out, recipient.getRole());
+        });
+        return write(payload);
+    }
+
+    @Override
+    public long appendEviction(Long userId) {
+        return write(encode(out -> {
+            out.writeByte(EVICTION);
+            out.writeLong(userId);
+        }));
+    }
+
+    @Override
+    public void awaitDurable(long sequence) {
+        if(!sync || durableSequence >= sequence) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            if(durableSequence >= sequence) {
+                return;
+            }
+            MappedByteBuffer pending;
+            int from;
+            int to;
+            long last;
+            lock.lock();
+            try {
+                pending = segment;
+                from = syncedPosition;
+                to = segment.position();
+                last = this.sequence;
+                syncedPosition = to;
+            } finally {
+                lock.unlock();
+            }
+            if(to > from) {
+                pending.force(from, to - from);
+            }
+            durableSequence = last;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    @Override
+    public long lastSequence() {
+        lock.lock();
+        try {
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Recovery recover(long flushedSequence) {
+        lock.lock();
+        try {
+            Files.createDirectories(directory);
+            long snapshotSequence = 0;
+            Map<Long, User> accounts = new HashMap<>();
+            List<Path> snapshots = list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+            Collections.reverse(snapshots);
+            for (Path snapshot : snapshots) {
+                try {
+                    snapshotSequence = readSnapshot(snapshot, accounts);
+                    break;
+                } catch (IOException e) {
+                    log.warn("Ignoring unreadable journal snapshot {}", snapshot, e);
+                    accounts.clear();
+                }
+            }
+
+            long last = Math.max(snapshotSequence, flushedSequence);
+            List<Transfers> transfers = new ArrayList<>();
+            for (Path path : list(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+                MappedByteBuffer buffer;
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                    buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                }
+                while (buffer.remaining() >= RECORD_HEADER_SIZE) {
+                    int length = buffer.getInt();
+                    if(length <= 0 || length > buffer.remaining() - 12) {
+                        break;
+                    }
+                    int crc = buffer.getInt();
+                    long recordSequence = buffer.getLong();
+                    byte[] payload = new byte[length];
+                    buffer.get(payload);
+                    if(checksum(recordSequence, payload) != crc) {
+                        log.warn("Journal segment {} has a torn record at sequence {}, ignoring the rest of it", path, recordSequence);
+                        break;
+                    }
+                    apply(recordSequence, payload, snapshotSequence, flushedSequence, accounts, transfers);
+                    last = Math.max(last, recordSequence);
+                }
+            }
+            sequence = last;
+            durableSequence = last;
+            return new Recovery(last, accounts, transfers);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not recover the transfer journal", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void snapshot(long sequence, Collection<User> accounts, long flushedSequence) {
+        Path target = directory.resolve(fileName(SNAPSHOT_PREFIX, sequence, SNAPSHOT_SUFFIX));
+        Path temporary = directory.resolve(target.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(directory);
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)), new CRC32());
+                DataOutputStream out = new DataOutputStream(checked);
+                out.writeLong(sequence);
+                out.writeInt(accounts.size());
+                for (User account : accounts) {
+                    out.writeLong(account.getId());
+                    writeDecimal(out, account.getBalance());
+                    writeString(out, account.getName());
+                    writeRole(out, account.getRole());
+                }
+                out.flush();
+                long crc = checked.getChecksum().getValue();
+                out.writeLong(crc);
+                out.flush();
+                channel.force(true);
+            }
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            for (Path snapshot : list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+                if(firstSequence(snapshot, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX) < sequence) {
+                    Files.deleteIfExists(snapshot);
+                }
+            }
+            deleteSegmentsUpTo(Math.min(sequence, flushedSequence));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the journal snapshot " + target, e);
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        lock.lock();
+        try {
+            if(segment != null) {
+                segment.force();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long write(byte[] payload) {
+        int size = RECORD_HEADER_SIZE + payload.length;
+        lock.lock();
+        try {
+            long next = sequence + 1;
+            if(segment == null || segment.remaining() < size + 4) {
+                roll(next, size);
+            }
+            int position = segment.position();
+            segment.position(position + 4);
+            segment.putInt(checksum(next, payload));
+            segment.putLong(next);
+            segment.put(payload);
+            segment.putInt(position, payload.length);
+            sequence = next;
+            return next;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void roll(long firstSequence, int recordSize) {
+        if(recordSize + 4 > segmentSize) {
+            throw new IllegalStateException("A journal record of " + recordSize + " bytes does not fit in a segment");
+        }
+        if(segment != null) {
+            segment.force();
+        }
+        Path path = directory.resolve(fileName(SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            segmentFirstSequence = firstSequence;
+            syncedPosition = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the journal segment " + path, e);
+        }
+    }
+
+    private void deleteSegmentsUpTo(long sequence) throws IOException {
+        long current;
+        long last;
+        lock.lock();
+        try {
+            current = segmentFirstSequence;
+            last = this.sequence;
+        } finally {
+            lock.unlock();
+        }
+        List<Path> segments = list(SEGMENT_PREFIX, SEGMENT_SUFFIX);
+        for (int i = 0; i < segments.size(); i++) {
+            long first = firstSequence(segments.get(i), SEGMENT_PREFIX, SEGMENT_SUFFIX);
+            if(first == current) {
+                break;
+            }
+            long upper = i + 1 < segments.size() ? firstSequence(segments.get(i + 1), SEGMENT_PREFIX, SEGMENT_SUFFIX) - 1 : last;
+            if(upper > sequence) {
+                break;
+            }
+            Files.deleteIfExists(segments.get(i));
+        }
+    }
+
+    private void apply(long recordSequence, byte[] payload, long snapshotSequence, long flushedSequence,
+                       Map<Long, User> accounts, List<Transfers> transfers) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte type = in.readByte();
+        if(type == EVICTION) {
+            long userId = in.readLong();
+            if(recordSequence > snapshotSequence) {
+                accounts.remove(userId);
+            }
+            return;
+        }
+        if(type != TRANSFER) {
+            throw new IOException("Unknown journal record type " + type + " at sequence " + recordSequence);
+        }
+        long senderId = in.readLong();
+        long recipientId = in.readLong();
+        LocalDateTime createdAt = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+        BigDecimal value = readDecimal(in);
+        BigDecimal senderBalance = readDecimal(in);
+        BigDecimal recipientBalance = readDecimal(in);
+        String senderName = readString(in);
+        String recipientName = readString(in);
+        UserRole senderRole = in.available() > 0 ? readRole(in) : null;
+        UserRole recipientRole = in.available() > 0 ? readRole(in) : null;
+        if(recordSequence > snapshotSequence) {
+            restore(accounts, senderId, senderName, senderRole, senderBalance);
+            restore(accounts, recipientId, recipientName, recipientRole, recipientBalance);
+        }
+        if(recordSequence > flushedSequence) {
+            Transfers transfer = new Transfers();
+            transfer.setSenderId(senderId);
+            transfer.setSenderName(senderName);
+            transfer.setRecipientId(recipientId);
+            transfer.setRecipientName(recipientName);
+            transfer.setValue(value);
+            transfer.setCreatedAt(createdAt);
+            transfer.setStatus(TransferStatus.EFFECTED);
+            transfer.setSenderBalance(senderBalance);
+            transfer.setRecipientBalance(recipientBalance);
+            transfer.setJournalSequence(recordSequence);
+            transfers.add(transfer);
+        }
+    }
+
+    private void restore(Map<Long, User> accounts, Long id, String name, UserRole role, BigDecimal balance) {
+        User account = accounts.computeIfAbsent(id, key -> new User(key, null, null, null, null, null, null));
+        account.setName(name);
+        account.setBalance(balance);
+        if(role != null) {
+            account.setRole(role);
+        }
+    }
+
+    private long readSnapshot(Path path, Map<Long, User> accounts) throws IOException {
+        try (CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(Files.newInputStream(path)), new CRC32())) {
+            DataInputStream in = new DataInputStream(checked);
+            long snapshotSequence = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                long id = in.readLong();
+                BigDecimal balance = readDecimal(in);
+                accounts.put(id, new User(id, readString(in), null, null, null, readRole(in), balance));
+            }
+            long expected = checked.getChecksum().getValue();
+            if(in.readLong() != expected) {
+                throw new IOException("Checksum mismatch");
+            }
+            return snapshotSequence;
+        }
+    }
+
+    private List<Path> list(String prefix, String suffix) throws IOException {
+        if(!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return new ArrayList<>(files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(prefix) && name.endsWith(suffix);
+                    })
+                    .sorted()
+                    .toList());
+        }
+    }
+
+    private long firstSequence(Path path, String prefix, String suffix) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+    }
+
+    private String fileName(String prefix, long sequence, String suffix) {
+        return prefix + String.format("%020d", sequence) + suffix;
+    }
+
+    private int checksum(long recordSequence, byte[] payload) {
+        CRC32 crc = new CRC32();
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            crc.update((int) (recordSequence >>> shift));
+        }
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private byte[] encode(RecordWriter writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try {
+            DataOutputStream out = new DataOutputStream(bytes);
+            writer.write(out);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        out.writeInt(value.scale());
+        out.writeShort(unscaled.length);
+        out.write(unscaled);
+    }
+
+    private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        int scale = in.readInt();
+        byte[] unscaled = new byte[in.readUnsignedShort()];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readUnsignedShort()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeRole(DataOutputStream out, UserRole role) throws IOException {
+        writeString(out, role == null ? null : role.name());
+    }
+
+    private static UserRole readRole(DataInputStream in) throws IOException {
+        String role = readString(in);
+        try {
+            return role.isEmpty() ? null : UserRole.valueOf(role);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unknown user role " + role, e);
+        }
+    }
+
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+}
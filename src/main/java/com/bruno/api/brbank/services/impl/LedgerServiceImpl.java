@@ -0,0 +1,477 @@
+package com.bruno.api.brbank.services.impl;
+
+import com.bruno.api.brbank.config.ReplicaLagGuard;
+import com.bruno.api.brbank.dtos.TransferRequest;
+import com.bruno.api.brbank.dtos.TransferResultDTO;
+import com.bruno.api.brbank.entities.JournalCheckpoint;
+import com.bruno.api.brbank.entities.Transfers;
+import com.bruno.api.brbank.entities.User;
+import com.bruno.api.brbank.enums.TransferMode;
+import com.bruno.api.brbank.enums.TransferStatus;
+import com.bruno.api.brbank.repositories.JournalCheckpointRepository;
+import com.bruno.api.brbank.repositories.TransferRepository;
+import com.bruno.api.brbank.repositories.UserRepository;
+import com.bruno.api.brbank.services.DailyBalanceService;
+import com.bruno.api.brbank.services.JournalService;
+import com.bruno.api.brbank.services.LedgerService;
+import com.bruno.api.brbank.services.TransferService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+@Slf4j
+@Service
+public class LedgerServiceImpl implements LedgerService {
+
+    private static final String CHECKPOINT = "ledger";
+
+    private final UserRepository userRepository;
+    private final TransferRepository transferRepository;
+    private final TransferService transferService;
+    private final TransactionTemplate transactionTemplate;
+    private final JournalService journalService;
+    private final JournalCheckpointRepository checkpointRepository;
+    private final DailyBalanceService dailyBalanceService;
+    private final ReplicaLagGuard replicaLagGuard;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int accountsPerShard;
+    private final Shard[] shards;
+    private final Queue<Transfers> pendingTransfers = new ConcurrentLinkedQueue<>();
+    private final Deque<Transfers> retryTransfers = new ArrayDeque<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ReentrantLock sequenceLock = new ReentrantLock();
+    private final AtomicLong flushedSequence = new AtomicLong();
+
+    public LedgerServiceImpl(UserRepository userRepository,
+                             TransferRepository transferRepository,
+                             TransferService transferService,
+                             TransactionTemplate transactionTemplate,
+                             JournalService journalService,
+                             JournalCheckpointRepository checkpointRepository,
+                             DailyBalanceService dailyBalanceService,
+                             ReplicaLagGuard replicaLagGuard,
+                             @Value("${bank.transfer.mode:ENTITY}") TransferMode mode,
+                             @Value("${bank.ledger.shards:64}") int shards,
+                             @Value("${bank.ledger.flush-batch-size:500}") int batchSize,
+                             @Value("${bank.ledger.max-accounts:100000}") int maxAccounts) {
+        this.userRepository = userRepository;
+        this.transferRepository = transferRepository;
+        this.transferService = transferService;
+        this.transactionTemplate = transactionTemplate;
+        this.journalService = journalService;
+        this.checkpointRepository = checkpointRepository;
+        this.dailyBalanceService = dailyBalanceService;
+        this.replicaLagGuard = replicaLagGuard;
+        this.enabled = mode == TransferMode.LEDGER;
+        this.batchSize = batchSize;
+        this.accountsPerShard = Math.max(1, maxAccounts / shards);
+        this.shards = new Shard[shards];
+        for (int i = 0; i < shards; i++) {
+            this.shards[i] = new Shard(i);
+        }
+    }
+
+    @PostConstruct
+    void recover() {
+        if(!journalService.isEnabled()) {
+            return;
+        }
+        long flushed = checkpointRepository.findById(CHECKPOINT).map(JournalCheckpoint::getSequence).orElse(0L);
+        JournalService.Recovery recovery = journalService.recover(flushed);
+        Map<Long, BigDecimal> balances = recovery.balances();
+        transactionTemplate.executeWithoutResult(status -> {
+            transferRepository.saveAll(recovery.transfers());
+            userRepository.updateBalances(balances);
+            dailyBalanceService.record(recovery.transfers());
+            checkpointRepository.save(new JournalCheckpoint(CHECKPOINT, recovery.lastSequence()));
+        });
+        flushedSequence.set(recovery.lastSequence());
+        int restored = 0;
+        for (User account : recovery.accounts().values()) {
+            if(account.getRole() == null) {
+                continue;
+            }
+            Shard shard = shardOf(account.getId());
+            shard.accounts.put(account.getId(), account);
+            shard.order.add(account.getId());
+            restored++;
+        }
+        snapshot();
+        log.info("Recovered the transfer journal up to sequence {}: {} transfers, {} balances and {} ledger accounts restored",
+                recovery.lastSequence(), recovery.transfers().size(), balances.size(), restored);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public Transfers transfer(TransferRequest request) {
+        Transfers transfer = post(request);
+        if(transfer.getJournalSequence() != null) {
+            journalService.awaitDurable(transfer.getJournalSequence());
+        }
+        return transfer;
+    }
+
+    private Transfers post(TransferRequest request) {
+        while (true) {
+            User sender = account(request.getSenderId(), "This sender ID does not exist in our system");
+            User recipient = account(request.getRecipient(), "This recipient ID does not exist in our system");
+            Shard senderShard = shardOf(sender.getId());
+            Shard recipientShard = shardOf(recipient.getId());
+            Shard first = senderShard.index <= recipientShard.index ? senderShard : recipientShard;
+            Shard second = first == senderShard ? recipientShard : senderShard;
+            first.lock.lock();
+            if(second != first) {
+                second.lock.lock();
+            }
+            try {
+                if(senderShard.accounts.get(sender.getId()) != sender || recipientShard.accounts.get(recipient.getId()) != recipient) {
+                    continue;
+                }
+                transferService.validTransferRequest(request, sender);
+                Transfers transfer = new Transfers();
+                transfer.setValue(request.getValue());
+                transfer.setRecipientId(recipient.getId());
+                transfer.setSenderId(sender.getId());
+                transfer.setSenderName(sender.getName());
+                transfer.setRecipientName(recipient.getName());
+                transfer.setCreatedAt(LocalDateTime.now());
+                transfer.setStatus(TransferStatus.EFFECTED);
+                BigDecimal senderBalance = sender.getBalance().subtract(request.getValue());
+                BigDecimal recipientBalance = recipient.getBalance().add(request.getValue());
+                transfer.setSenderBalance(senderBalance);
+                transfer.setRecipientBalance(recipientBalance);
+                if(journalService.isEnabled()) {
+                    sequenceLock.lock();
+                    try {
+                        transfer.setJournalSequence(journalService.append(transfer, sender, recipient));
+                        pendingTransfers.add(transfer);
+                    } finally {
+                        sequenceLock.unlock();
+                    }
+                }
+                else {
+                    pendingTransfers.add(transfer);
+                }
+                sender.setBalance(senderBalance);
+                recipient.setBalance(recipientBalance);
+                senderShard.dirty.add(sender.getId());
+                recipientShard.dirty.add(recipient.getId());
+                return transfer;
+            } finally {
+                if(second != first) {
+                    second.lock.unlock();
+                }
+                first.lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public List<TransferResultDTO> transferAll(List<TransferRequest> requests) {
+        transferService.validBatchSize(requests);
+        List<TransferResultDTO> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                transferService.validRequestConstraints(requests.get(i));
+                transfer(requests.get(i));
+                results.add(new TransferResultDTO(i, TransferStatus.EFFECTED, null, null));
+            } catch (IllegalArgumentException e){
+                results.add(new TransferResultDTO(i, TransferStatus.FAILURE, null, e.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public <T> T exclusive(Long userId, Supplier<T> action) {
+        if(!enabled) {
+            return action.get();
+        }
+        Shard shard = shardOf(userId);
+        long eviction;
+        flushLock.lock();
+        try {
+            shard.lock.lock();
+            try {
+                User account = shard.accounts.remove(userId);
+                shard.order.remove(userId);
+                if(account != null && shard.dirty.remove(userId)) {
+                    userRepository.updateBalances(Map.of(userId, account.getBalance()));
+                }
+                shard.pinned.merge(userId, 1, Integer::sum);
+                shard.generation++;
+                eviction = appendEviction(userId);
+            } finally {
+                shard.lock.unlock();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+        try {
+            awaitDurable(eviction);
+            flush();
+            return action.get();
+        } finally {
+            shard.lock.lock();
+            try {
+                shard.pinned.computeIfPresent(userId, (id, count) -> count == 1 ? null : count - 1);
+                shard.generation++;
+                shard.released.signalAll();
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${bank.ledger.flush-interval-ms:100}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            boolean first = true;
+            while (flushBatch(first)) {
+                first = false;
+            }
+            trim();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${bank.journal.snapshot-interval-ms:60000}")
+    public void snapshot() {
+        if(!journalService.isEnabled()) {
+            return;
+        }
+        long sequence;
+        List<User> accounts = new ArrayList<>();
+        for (Shard shard : shards) {
+            shard.lock.lock();
+        }
+        try {
+            sequence = journalService.lastSequence();
+            for (Shard shard : shards) {
+                for (User account : shard.accounts.values()) {
+                    accounts.add(snapshot(account));
+                }
+            }
+        } finally {
+            for (int i = shards.length - 1; i >= 0; i--) {
+                shards[i].lock.unlock();
+            }
+        }
+        journalService.snapshot(sequence, accounts, flushedSequence.get());
+    }
+
+    private boolean flushBatch(boolean collectBalances) {
+        List<Transfers> transfers = new ArrayList<>();
+        Transfers transfer;
+        while (transfers.size() < batchSize && (transfer = retryTransfers.poll()) != null) {
+            transfers.add(transfer);
+        }
+        while (transfers.size() < batchSize && (transfer = pendingTransfers.poll()) != null) {
+            transfers.add(transfer);
+        }
+        Map<Long, BigDecimal> balances = collectBalances ? collectDirtyBalances() : Map.of();
+        if(transfers.isEmpty() && balances.isEmpty()) {
+            return false;
+        }
+        Long sequence = transfers.isEmpty() ? null : transfers.get(transfers.size() - 1).getJournalSequence();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                transferRepository.saveAll(transfers);
+                userRepository.updateBalances(balances);
+                dailyBalanceService.record(transfers);
+                Set<Long> written = new HashSet<>(balances.keySet());
+                for (Transfers flushed : transfers) {
+                    written.add(flushed.getSenderId());
+                    written.add(flushed.getRecipientId());
+                }
+                replicaLagGuard.written(written);
+                if(sequence != null) {
+                    checkpointRepository.save(new JournalCheckpoint(CHECKPOINT, sequence));
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Ledger flush failed, {} transfers and {} balances will be retried", transfers.size(), balances.size(), e);
+            for (int i = transfers.size() - 1; i >= 0; i--) {
+                transfers.get(i).setId(null);
+                retryTransfers.addFirst(transfers.get(i));
+            }
+            markDirty(balances.keySet());
+            return false;
+        }
+        if(sequence != null) {
+            flushedSequence.set(sequence);
+        }
+        return transfers.size() == batchSize;
+    }
+
+    private Map<Long, BigDecimal> collectDirtyBalances() {
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                for (Long id : shard.dirty) {
+                    User account = shard.accounts.get(id);
+                    if(account != null) {
+                        balances.put(id, account.getBalance());
+                    }
+                }
+                shard.dirty.clear();
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return balances;
+    }
+
+    private void markDirty(Set<Long> ids) {
+        for (Long id : ids) {
+            Shard shard = shardOf(id);
+            shard.lock.lock();
+            try {
+                if(shard.accounts.containsKey(id)) {
+                    shard.dirty.add(id);
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+    }
+
+    private User account(Long id, String notFoundMessage) {
+        Shard shard = shardOf(id);
+        while (true) {
+            User account = shard.accounts.get(id);
+            if(account != null) {
+                return account;
+            }
+            long generation;
+            shard.lock.lock();
+            try {
+                while (shard.pinned.containsKey(id)) {
+                    shard.released.awaitUninterruptibly();
+                }
+                generation = shard.generation;
+            } finally {
+                shard.lock.unlock();
+            }
+            User loaded = userRepository.findFreshById(id).map(this::snapshot).orElseThrow(() -> new IllegalArgumentException(notFoundMessage));
+            shard.lock.lock();
+            try {
+                if(shard.generation != generation) {
+                    continue;
+                }
+                User current = shard.accounts.putIfAbsent(id, loaded);
+                if(current != null) {
+                    return current;
+                }
+                shard.order.add(id);
+                return loaded;
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+    }
+
+    private void trim() {
+        long eviction = 0;
+        for (Shard shard : shards) {
+            if(shard.accounts.size() <= accountsPerShard) {
+                continue;
+            }
+            shard.lock.lock();
+            try {
+                Iterator<Long> candidates = shard.order.iterator();
+                while (shard.accounts.size() > accountsPerShard && candidates.hasNext()) {
+                    Long id = candidates.next();
+                    if(shard.dirty.contains(id)) {
+                        continue;
+                    }
+                    candidates.remove();
+                    shard.accounts.remove(id);
+                    eviction = appendEviction(id);
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        awaitDurable(eviction);
+    }
+
+    private long appendEviction(Long userId) {
+        if(!journalService.isEnabled()) {
+            return 0;
+        }
+        sequenceLock.lock();
+        try {
+            return journalService.appendEviction(userId);
+        } finally {
+            sequenceLock.unlock();
+        }
+    }
+
+    private void awaitDurable(long sequence) {
+        if(sequence > 0) {
+            journalService.awaitDurable(sequence);
+        }
+    }
+
+    private User snapshot(User user) {
+        User account = new User();
+        BeanUtils.copyProperties(user, account, "password");
+        return account;
+    }
+
+    private Shard shardOf(Long id) {
+        return shards[Math.floorMod(Long.hashCode(id), shards.length)];
+    }
+
+    private static final class Shard {
+        private final int index;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition released = lock.newCondition();
+        private final Map<Long, User> accounts = new ConcurrentHashMap<>();
+        private final Set<Long> order = new LinkedHashSet<>();
+        private final Set<Long> dirty = new HashSet<>();
+        private final Map<Long, Integer> pinned = new HashMap<>();
+        private long generation;
+
+        private Shard(int index) {
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.bruno.api.brbank.services.impl;
+
+import com.bruno.api.brbank.exceptions.ServiceUnavailableException;
+import com.bruno.api.brbank.services.PasswordHashingService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Service
+public class PasswordHashingServiceImpl implements PasswordHashingService {
+
+    private final PasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+
+    public PasswordHashingServiceImpl(PasswordEncoder encoder,
+                                      @Value("${bank.security.hashing.threads:0}") int threads,
+                                      @Value("${bank.security.hashing.queue-size:64}") int queueSize,
+                                      @Value("${bank.security.hashing.timeout:5s}") Duration timeout) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.encoder = encoder;
+        this.timeout = timeout;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), new CustomizableThreadFactory("password-hashing-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(String rawPassword) {
+        return execute(() -> encoder.encode(rawPassword));
+    }
+
+    @Override
+    public List<String> encodeAll(List<String> rawPasswords) {
+        int window = Math.max(1, executor.getQueue().remainingCapacity() / 2);
+        Deque<Future<String>> inFlight = new ArrayDeque<>(window);
+        List<String> encoded = new ArrayList<>(rawPasswords.size());
+        int next = 0;
+        while (encoded.size() < rawPasswords.size()) {
+            while (next < rawPasswords.size() && inFlight.size() < window) {
+                String rawPassword = rawPasswords.get(next);
+                try {
+                    inFlight.add(executor.submit(() -> encoder.encode(rawPassword)));
+                    next++;
+                } catch (RejectedExecutionException e){
+                    if(inFlight.isEmpty()){
+                        throw new ServiceUnavailableException("Too many password operations in progress, try again later");
+                    }
+                    break;
+                }
+            }
+            encoded.add(await(inFlight.poll()));
+        }
+        return encoded;
+    }
+
+    @Override
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return execute(() -> encoder.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return encoder.upgradeEncoding(encodedPassword);
+    }
+
+    @PreDestroy
+    void shutdown(){
+        executor.shutdown();
+    }
+
+    private <T> T execute(Callable<T> task){
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e){
+            throw new ServiceUnavailableException("Too many password operations in progress, try again later");
+        }
+        return await(future);
+    }
+
+    private <T> T await(Future<T> future){
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e){
+            future.cancel(true);
+            throw new ServiceUnavailableException("Password operation timed out, try again later");
+        } catch (InterruptedException e){
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Password operation was interrupted");
+        } catch (ExecutionException e){
+            if(e.getCause() instanceof RuntimeException runtimeException){
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
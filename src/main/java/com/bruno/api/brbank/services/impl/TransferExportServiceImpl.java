@@ -0,0 +1,184 @@
+package com.bruno.api.brbank.services.impl;
+
+import com.bruno.api.brbank.config.ReadWriteRoutingDataSource;
+import com.bruno.api.brbank.entities.Transfers;
+import com.bruno.api.brbank.repositories.TransferRepository;
+import com.bruno.api.brbank.services.TransferExportService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+@Service
+public class TransferExportServiceImpl implements TransferExportService {
+
+    private static final String CSV_HEADER = "id,senderId,senderName,recipientId,recipientName,value,createdAt,status,message\n";
+
+    private final TransferRepository transferRepository;
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final int maxDays;
+
+    public TransferExportServiceImpl(TransferRepository transferRepository,
+                                     ObjectMapper objectMapper,
+                                     @Value("${bank.transfer.export.buffer-size:65536}") int bufferSize,
+                                     @Value("${bank.transfer.export.max-days:3660}") int maxDays) {
+        this.transferRepository = transferRepository;
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.maxDays = maxDays;
+    }
+
+    @Override
+    public MediaType contentType(String format) {
+        switch (format == null ? "" : format.toLowerCase(Locale.ROOT)) {
+            case "ndjson":
+                return UserImportServiceImpl.NDJSON;
+            case "csv":
+                return UserImportServiceImpl.CSV;
+            default:
+                throw new IllegalArgumentException("The export format must be ndjson or csv");
+        }
+    }
+
+    @Override
+    public void validPeriod(LocalDate from, LocalDate to) {
+        if(from != null && to != null && from.isAfter(to)){
+            throw new IllegalArgumentException("The export period must have a start date before its end date");
+        }
+        if(from != null && to != null && ChronoUnit.DAYS.between(from, to) >= maxDays){
+            throw new IllegalArgumentException("The export period cannot be longer than " + maxDays + " days");
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true, label = ReadWriteRoutingDataSource.REPLICA)
+    public void export(Long userId, LocalDate from, LocalDate to, MediaType contentType, OutputStream output) throws IOException {
+        validPeriod(from, to);
+        try {
+            if(UserImportServiceImpl.CSV.includes(contentType)){
+                exportCsv(userId, from, to, output);
+            }
+            else{
+                exportNdjson(userId, from, to, output);
+            }
+        } catch (UncheckedIOException e){
+            throw e.getCause();
+        }
+    }
+
+    private void exportNdjson(Long userId, LocalDate from, LocalDate to, OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), bufferSize);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+        long[] rows = {0};
+        scan(userId, from, to, transfer -> {
+            try {
+                generator.writeStartObject();
+                generator.writeNumberField("id", transfer.getId());
+                writeNumber(generator, "senderId", transfer.getSenderId());
+                generator.writeStringField("senderName", transfer.getSenderName());
+                writeNumber(generator, "recipientId", transfer.getRecipientId());
+                generator.writeStringField("recipientName", transfer.getRecipientName());
+                if(transfer.getValue() == null){
+                    generator.writeNullField("value");
+                }
+                else{
+                    generator.writeNumberField("value", transfer.getValue());
+                }
+                generator.writeStringField("createdAt", transfer.getCreatedAt() == null ? null : transfer.getCreatedAt().toString());
+                generator.writeStringField("status", transfer.getStatus() == null ? null : transfer.getStatus().name());
+                if(transfer.getMessage() != null){
+                    generator.writeStringField("message", transfer.getMessage());
+                }
+                generator.writeEndObject();
+                if(++rows[0] == 1){
+                    generator.flush();
+                }
+            } catch (IOException e){
+                throw new UncheckedIOException(e);
+            }
+        });
+        if(rows[0] > 0){
+            generator.writeRaw('\n');
+        }
+        generator.flush();
+    }
+
+    private void exportCsv(Long userId, LocalDate from, LocalDate to, OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), bufferSize);
+        writer.write(CSV_HEADER);
+        writer.flush();
+        scan(userId, from, to, transfer -> {
+            try {
+                writer.write(String.valueOf(transfer.getId()));
+                writer.write(',');
+                writer.write(text(transfer.getSenderId()));
+                writer.write(',');
+                writer.write(quote(transfer.getSenderName()));
+                writer.write(',');
+                writer.write(text(transfer.getRecipientId()));
+                writer.write(',');
+                writer.write(quote(transfer.getRecipientName()));
+                writer.write(',');
+                writer.write(transfer.getValue() == null ? "" : transfer.getValue().toPlainString());
+                writer.write(',');
+                writer.write(text(transfer.getCreatedAt()));
+                writer.write(',');
+                writer.write(text(transfer.getStatus()));
+                writer.write(',');
+                writer.write(quote(transfer.getMessage()));
+                writer.write('\n');
+            } catch (IOException e){
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    private void scan(Long userId, LocalDate from, LocalDate to, Consumer<Transfers> handler) {
+        transferRepository.scanTransfers(userId,
+                from == null ? null : from.atStartOfDay(),
+                to == null ? null : to.plusDays(1).atStartOfDay(),
+                handler);
+    }
+
+    private void writeNumber(JsonGenerator generator, String name, Long value) throws IOException {
+        if(value == null){
+            generator.writeNullField(name);
+        }
+        else{
+            generator.writeNumberField(name, value);
+        }
+    }
+
+    private String text(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+    private String quote(String value) {
+        if(value == null){
+            return "";
+        }
+        if(value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0){
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
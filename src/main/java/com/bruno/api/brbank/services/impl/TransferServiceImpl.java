@@ -1,17 +1,44 @@
 package com.bruno.api.brbank.services.impl;
 
+import com.bruno.api.brbank.config.ReadWriteRoutingDataSource;
+import com.bruno.api.brbank.config.ReplicaLagGuard;
+import com.bruno.api.brbank.config.StageMetrics;
+import com.bruno.api.brbank.dtos.CursorPageDTO;
 import com.bruno.api.brbank.dtos.TransferDTO;
 import com.bruno.api.brbank.dtos.TransferRequest;
+import com.bruno.api.brbank.dtos.TransferResultDTO;
+import com.bruno.api.brbank.dtos.TransferStatusDTO;
 import com.bruno.api.brbank.entities.Transfers;
 import com.bruno.api.brbank.entities.User;
+import com.bruno.api.brbank.enums.TransferMode;
+import com.bruno.api.brbank.enums.TransferStatus;
 import com.bruno.api.brbank.repositories.TransferRepository;
 import com.bruno.api.brbank.repositories.UserRepository;
+import com.bruno.api.brbank.services.DailyBalanceService;
 import com.bruno.api.brbank.services.TransferService;
+import com.bruno.api.brbank.services.UserService;
+import com.bruno.api.brbank.validation.ValidationRules;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -19,37 +46,226 @@ public class TransferServiceImpl implements TransferService {
 
     private final UserRepository userRepository;
     private final TransferRepository transferRepository;
+    private final Validator validator;
+    private final StageMetrics stageMetrics;
+    private final DailyBalanceService dailyBalanceService;
+    private final ReplicaLagGuard replicaLagGuard;
+    private final UserService userService;
+
+    @Value("${bank.transfer.mode:ENTITY}")
+    private TransferMode mode;
+    @Value("${bank.transfer.batch.max-size:1000}")
+    private int batchMaxSize;
+    @Value("${bank.transfer.history.max-page-size:100}")
+    private int historyMaxPageSize;
+    @Value("${bank.validation.collect-all:false}")
+    private boolean collectAllErrors;
+
+    @Override
+    public boolean isAtomic() {
+        return mode == TransferMode.ATOMIC;
+    }
+
+    @Override
+    @Transactional
+    public void transfer(TransferRequest request) {
+        Set<Long> ids = new HashSet<>(Arrays.asList(request.getSenderId(), request.getRecipient()));
+        ids.remove(null);
+        Map<Long, User> accounts = new HashMap<>();
+        for (User user : stageMetrics.record(StageMetrics.TRANSFER, "lock_accounts", () -> userRepository.findByIdInOrderByIdAsc(ids))) {
+            accounts.put(user.getId(), user);
+        }
+        User sender = accounts.get(request.getSenderId());
+        if(sender == null){
+            throw new IllegalArgumentException("This sender ID does not exist in our system");
+        }
+        User recipient = accounts.get(request.getRecipient());
+        if(recipient == null){
+            throw new IllegalArgumentException("This recipient ID does not exist in our system");
+        }
+        createTransfer(request, sender, recipient);
+        stageMetrics.record(StageMetrics.TRANSFER, "save_sender", () -> userService.save(sender));
+        stageMetrics.record(StageMetrics.TRANSFER, "save_recipient", () -> userService.save(recipient));
+    }
 
     @Override
     public void createTransfer(TransferRequest request, User sender, User recipient) {
-        validTransferRequest(request, sender);
+        stageMetrics.record(StageMetrics.TRANSFER, "validate", () -> validTransferRequest(request, sender));
         sender.setBalance(sender.getBalance().subtract(request.getValue()));
         recipient.setBalance(recipient.getBalance().add(request.getValue()));
+        Transfers transfer = stageMetrics.record(StageMetrics.TRANSFER, "insert_transfer", () -> transferRepository.save(newTransfer(request, sender, recipient)));
+        stageMetrics.record(StageMetrics.TRANSFER, "daily_balance", () -> dailyBalanceService.record(List.of(transfer)));
+        replicaLagGuard.written(List.of(sender.getId(), recipient.getId()));
+    }
+
+    @Override
+    @Transactional
+    public void transferAtomically(TransferRequest request) {
+        if(request.getValue().signum() == 0){
+            throw new IllegalArgumentException("The transfer amount cannot be 0");
+        }
+        if(request.getValue().signum() < 0){
+            throw new IllegalArgumentException("Transactions with negative amounts are not permitted");
+        }
+        if(Objects.equals(request.getRecipient(), request.getSenderId())){
+            throw new IllegalArgumentException("It is not allowed to make a transaction for yourself");
+        }
+        if(stageMetrics.record(StageMetrics.TRANSFER, "debit", () -> userRepository.debit(request.getSenderId(), request.getValue())) == 0){
+            User sender = userRepository.findById(request.getSenderId())
+                    .orElseThrow(() -> new IllegalArgumentException("This sender ID does not exist in our system"));
+            validTransferRequest(request, sender);
+            throw new IllegalArgumentException("Not enough balance for the transfer");
+        }
+        if(stageMetrics.record(StageMetrics.TRANSFER, "credit", () -> userRepository.credit(request.getRecipient(), request.getValue())) == 0){
+            throw new IllegalArgumentException("This recipient ID does not exist in our system");
+        }
+        userRepository.evictCached(List.of(request.getSenderId(), request.getRecipient()));
+        Transfers transfer = new Transfers();
+        transfer.setId(transferRepository.nextId());
+        transfer.setSenderId(request.getSenderId());
+        transfer.setRecipientId(request.getRecipient());
+        transfer.setValue(request.getValue());
+        transfer.setCreatedAt(LocalDateTime.now());
+        transfer.setStatus(TransferStatus.EFFECTED);
+        stageMetrics.record(StageMetrics.TRANSFER, "insert_transfer",
+                () -> transferRepository.insertBetween(transfer.getId(), transfer.getSenderId(), transfer.getRecipientId(), transfer.getValue(), transfer.getCreatedAt()));
+        stageMetrics.record(StageMetrics.TRANSFER, "daily_balance", () -> dailyBalanceService.record(List.of(transfer)));
+        replicaLagGuard.written(List.of(transfer.getSenderId(), transfer.getRecipientId()));
+    }
+
+    @Override
+    @Transactional
+    public List<TransferResultDTO> createTransfers(List<TransferRequest> requests) {
+        validBatchSize(requests);
+        Set<Long> ids = new HashSet<>();
+        for (TransferRequest request : requests) {
+            if(request != null){
+                ids.add(request.getSenderId());
+                ids.add(request.getRecipient());
+            }
+        }
+        Map<Long, User> accounts = lockAccounts(ids);
+
+        Transfers[] applied = new Transfers[requests.size()];
+        String[] failures = new String[requests.size()];
+        List<Transfers> transfers = new ArrayList<>();
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            TransferRequest request = requests.get(i);
+            try {
+                validRequestConstraints(request);
+                apply(request, accounts, balances);
+                applied[i] = newTransfer(request, accounts.get(request.getSenderId()), accounts.get(request.getRecipient()));
+                transfers.add(applied[i]);
+            } catch (IllegalArgumentException e){
+                failures[i] = e.getMessage();
+            }
+        }
+        transferRepository.saveAll(transfers);
+        userRepository.updateBalances(balances);
+        dailyBalanceService.record(transfers);
+        replicaLagGuard.written(balances.keySet());
+
+        List<TransferResultDTO> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            if(applied[i] != null){
+                results.add(new TransferResultDTO(i, TransferStatus.EFFECTED, applied[i].getId(), null));
+            }
+            else{
+                results.add(new TransferResultDTO(i, TransferStatus.FAILURE, null, failures[i]));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    @Transactional
+    public Long createPending(TransferRequest request) {
         Transfers transfer = new Transfers();
         transfer.setValue(request.getValue());
         transfer.setRecipientId(request.getRecipient());
         transfer.setSenderId(request.getSenderId());
-        transfer.setSenderName(sender.getName());
-        transfer.setRecipientName(recipient.getName());
-        transferRepository.save(transfer);
+        transfer.setStatus(TransferStatus.PENDING);
+        transfer.setCreatedAt(LocalDateTime.now());
+        return transferRepository.save(transfer).getId();
     }
 
     @Override
-    public void validTransferRequest(TransferRequest transferRequest, User sender) {
-        if(sender.getBalance().doubleValue() < transferRequest.getValue().doubleValue()){
-            throw new IllegalArgumentException("Not enough balance for the transfer");
+    @Transactional
+    public void settlePending(List<Long> transferIds) {
+        Set<Long> ids = new HashSet<>();
+        for (Transfers transfer : transferRepository.findAllById(transferIds)) {
+            if(transfer.getStatus() == TransferStatus.PENDING){
+                ids.add(transfer.getSenderId());
+                ids.add(transfer.getRecipientId());
+            }
         }
-        if(transferRequest.getValue().doubleValue() == 0){
-            throw new IllegalArgumentException("The transfer amount cannot be 0");
+        Map<Long, User> accounts = lockAccounts(ids);
+        List<Transfers> transfers = transferRepository.findPendingByIdIn(transferIds);
+
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        for (Transfers transfer : transfers) {
+            TransferRequest request = new TransferRequest();
+            request.setSenderId(transfer.getSenderId());
+            request.setRecipient(transfer.getRecipientId());
+            request.setValue(transfer.getValue());
+            try {
+                apply(request, accounts, balances);
+                transfer.setSenderName(accounts.get(request.getSenderId()).getName());
+                transfer.setRecipientName(accounts.get(request.getRecipient()).getName());
+                transfer.setSenderBalance(accounts.get(request.getSenderId()).getBalance());
+                transfer.setRecipientBalance(accounts.get(request.getRecipient()).getBalance());
+                transfer.setStatus(TransferStatus.EFFECTED);
+            } catch (IllegalArgumentException e){
+                transfer.setStatus(TransferStatus.FAILURE);
+                transfer.setMessage(e.getMessage());
+            }
         }
-        if(transferRequest.getValue().doubleValue() < 0){
-            throw new IllegalArgumentException("Transactions with negative amounts are not permitted");
+        userRepository.updateBalances(balances);
+        dailyBalanceService.record(transfers);
+        replicaLagGuard.written(balances.keySet());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void failPending(Long transferId, String message) {
+        transferRepository.findById(transferId).ifPresent(transfer -> {
+            transfer.setStatus(TransferStatus.FAILURE);
+            transfer.setMessage(message);
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TransferStatusDTO findStatus(Long transferId) {
+        Transfers transfer = transferRepository.findById(transferId)
+                .orElseThrow(() -> new IllegalArgumentException("This transfer ID does not exist in our system"));
+        return new TransferStatusDTO(transfer.getId(), transfer.getStatus(), transfer.getMessage(), transfer.getCreatedAt());
+    }
+
+    @Override
+    public void validTransferRequest(TransferRequest transferRequest, User sender) {
+        ValidationRules.TRANSFER.validate(transferRequest, sender, collectAllErrors);
+    }
+
+    @Override
+    public void validRequestConstraints(TransferRequest transferRequest) {
+        if(transferRequest == null){
+            throw new IllegalArgumentException("The transfer request must be indicated");
         }
-        if(sender.getRole().toString().equals("MERCHANT")){
-            throw new IllegalArgumentException("Merchant cannot send money");
+        Set<ConstraintViolation<TransferRequest>> violations = validator.validate(transferRequest);
+        if(!violations.isEmpty()){
+            throw new IllegalArgumentException(violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(", ")));
         }
-        if(Objects.equals(transferRequest.getRecipient(), transferRequest.getSenderId())){
-            throw new IllegalArgumentException("It is not allowed to make a transaction for yourself");
+    }
+
+    @Override
+    public void validBatchSize(List<TransferRequest> requests) {
+        if(requests == null || requests.isEmpty()){
+            throw new IllegalArgumentException("At least one transfer must be indicated");
+        }
+        if(requests.size() > batchMaxSize){
+            throw new IllegalArgumentException("A batch cannot have more than " + batchMaxSize + " transfers");
         }
     }
 
@@ -59,4 +275,75 @@ public class TransferServiceImpl implements TransferService {
         BeanUtils.copyProperties(transfers, transfer);
         transferRepository.save(transfer);
     }
+
+    @Override
+    @Transactional(readOnly = true, label = ReadWriteRoutingDataSource.REPLICA)
+    public CursorPageDTO<TransferDTO> findHistory(Long userId, Long cursor, int size) {
+        if(size < 1 || size > historyMaxPageSize){
+            throw new IllegalArgumentException("The page size must be between 1 and " + historyMaxPageSize);
+        }
+        replicaLagGuard.reading(userId);
+        Long before = cursor == null ? Long.MAX_VALUE : cursor;
+        PageRequest page = PageRequest.of(0, size + 1);
+        List<TransferDTO> sent = transferRepository.findSentBefore(userId, before, page);
+        List<TransferDTO> received = transferRepository.findReceivedBefore(userId, before, page);
+
+        List<TransferDTO> content = new ArrayList<>(size + 1);
+        int s = 0, r = 0;
+        while (content.size() <= size && (s < sent.size() || r < received.size())) {
+            if(r >= received.size() || (s < sent.size() && sent.get(s).getId() > received.get(r).getId())){
+                content.add(sent.get(s++));
+            }
+            else{
+                content.add(received.get(r++));
+            }
+        }
+        Long nextCursor = null;
+        if(content.size() > size){
+            content.remove(size);
+            nextCursor = content.get(size - 1).getId();
+        }
+        return new CursorPageDTO<>(content, nextCursor);
+    }
+
+    private Map<Long, User> lockAccounts(Set<Long> ids) {
+        ids.remove(null);
+        Map<Long, User> accounts = new HashMap<>();
+        for (User user : userRepository.findByIdInOrderByIdAsc(ids)) {
+            User account = new User();
+            BeanUtils.copyProperties(user, account, "password");
+            accounts.put(account.getId(), account);
+        }
+        return accounts;
+    }
+
+    private void apply(TransferRequest request, Map<Long, User> accounts, Map<Long, BigDecimal> balances) {
+        User sender = accounts.get(request.getSenderId());
+        if(sender == null){
+            throw new IllegalArgumentException("This sender ID does not exist in our system");
+        }
+        User recipient = accounts.get(request.getRecipient());
+        if(recipient == null){
+            throw new IllegalArgumentException("This recipient ID does not exist in our system");
+        }
+        validTransferRequest(request, sender);
+        sender.setBalance(sender.getBalance().subtract(request.getValue()));
+        recipient.setBalance(recipient.getBalance().add(request.getValue()));
+        balances.put(sender.getId(), sender.getBalance());
+        balances.put(recipient.getId(), recipient.getBalance());
+    }
+
+    private Transfers newTransfer(TransferRequest request, User sender, User recipient) {
+        Transfers transfer = new Transfers();
+        transfer.setValue(request.getValue());
+        transfer.setRecipientId(request.getRecipient());
+        transfer.setSenderId(request.getSenderId());
+        transfer.setSenderName(sender.getName());
+        transfer.setRecipientName(recipient.getName());
+        transfer.setSenderBalance(sender.getBalance());
+        transfer.setRecipientBalance(recipient.getBalance());
+        transfer.setCreatedAt(LocalDateTime.now());
+        transfer.setStatus(TransferStatus.EFFECTED);
+        return transfer;
+    }
 }
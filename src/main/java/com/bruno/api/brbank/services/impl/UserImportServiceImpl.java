@@ -0,0 +1,285 @@
+package com.bruno.api.brbank.services.impl;
+
+import com.bruno.api.brbank.dtos.ImportErrorDTO;
+import com.bruno.api.brbank.dtos.ImportResultDTO;
+import com.bruno.api.brbank.dtos.UserDTO;
+import com.bruno.api.brbank.entities.User;
+import com.bruno.api.brbank.repositories.UserRepository;
+import com.bruno.api.brbank.services.PasswordHashingService;
+import com.bruno.api.brbank.services.UserImportService;
+import com.bruno.api.brbank.services.UserIndexService;
+import com.bruno.api.brbank.services.UserService;
+import com.bruno.api.brbank.validation.UserKeys;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class UserImportServiceImpl implements UserImportService {
+
+    public static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    public static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
+    private static final String DUPLICATED = "This email or CPF already has an associated record";
+
+    private final UserRepository repository;
+    private final UserService userService;
+    private final UserIndexService userIndex;
+    private final PasswordHashingService passwordHashingService;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader reader;
+    private final int chunkSize;
+    private final int maxErrors;
+
+    public UserImportServiceImpl(UserRepository repository,
+                                 UserService userService,
+                                 UserIndexService userIndex,
+                                 PasswordHashingService passwordHashingService,
+                                 Validator validator,
+                                 TransactionTemplate transactionTemplate,
+                                 ObjectMapper objectMapper,
+                                 @Value("${bank.users.import.chunk-size:1000}") int chunkSize,
+                                 @Value("${bank.users.import.max-errors:1000}") int maxErrors) {
+        this.repository = repository;
+        this.userService = userService;
+        this.userIndex = userIndex;
+        this.passwordHashingService = passwordHashingService;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.reader = objectMapper.readerFor(UserDTO.class);
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+    }
+
+    @Override
+    public ImportResultDTO importUsers(InputStream input, MediaType contentType) {
+        boolean csv;
+        if(contentType != null && NDJSON.includes(contentType)){
+            csv = false;
+        }
+        else if(contentType != null && CSV.includes(contentType)){
+            csv = true;
+        }
+        else{
+            throw new IllegalArgumentException("The import must be sent as application/x-ndjson or text/csv");
+        }
+
+        ImportResultDTO result = new ImportResultDTO();
+        Set<String> seenCpfs = new HashSet<>();
+        Set<String> seenEmails = new HashSet<>();
+        List<ImportLine> chunk = new ArrayList<>(chunkSize);
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            Map<String, Integer> columns = csv ? readHeader(lines.readLine()) : null;
+            long number = csv ? 1 : 0;
+            String line;
+            while ((line = lines.readLine()) != null) {
+                number++;
+                if(line.isBlank()){
+                    continue;
+                }
+                try {
+                    chunk.add(new ImportLine(number, csv ? parseCsv(line, columns) : parseJson(line)));
+                } catch (IllegalArgumentException e){
+                    fail(result, number, e.getMessage());
+                }
+                if(chunk.size() == chunkSize){
+                    importChunk(chunk, seenCpfs, seenEmails, result);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e){
+            throw new IllegalArgumentException("Could not read the import body: " + e.getMessage());
+        }
+        importChunk(chunk, seenCpfs, seenEmails, result);
+        return result;
+    }
+
+    private void importChunk(List<ImportLine> chunk, Set<String> seenCpfs, Set<String> seenEmails, ImportResultDTO result) {
+        List<ImportLine> valid = new ArrayList<>(chunk.size());
+        for (ImportLine line : chunk) {
+            try {
+                validLine(line.dto());
+                valid.add(line);
+            } catch (IllegalArgumentException e){
+                fail(result, line.number(), e.getMessage());
+            }
+        }
+        if(valid.isEmpty()){
+            return;
+        }
+
+        Set<String> existingCpfs = new HashSet<>(repository.findCpfsIn(valid.stream().map(line -> line.dto().getCpf()).toList()));
+        Set<String> existingEmails = new HashSet<>(repository.findEmailsIn(valid.stream().map(line -> line.dto().getEmail()).toList()));
+        List<ImportLine> accepted = new ArrayList<>(valid.size());
+        for (ImportLine line : valid) {
+            String cpf = line.dto().getCpf();
+            String email = line.dto().getEmail();
+            if(existingCpfs.contains(cpf) || existingEmails.contains(email) || seenCpfs.contains(cpf) || seenEmails.contains(email)){
+                fail(result, line.number(), DUPLICATED);
+                continue;
+            }
+            seenCpfs.add(cpf);
+            seenEmails.add(email);
+            accepted.add(line);
+        }
+        if(accepted.isEmpty()){
+            return;
+        }
+
+        List<String> passwords = passwordHashingService.encodeAll(accepted.stream().map(line -> line.dto().getPassword()).toList());
+        List<User> users = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            accepted.get(i).dto().setPassword(passwords.get(i));
+            users.add(userService.dtoToEntity(accepted.get(i).dto()));
+        }
+        try {
+            List<User> saved = transactionTemplate.execute(status -> repository.saveAll(users));
+            if(saved != null){
+                saved.forEach(userIndex::put);
+            }
+            result.setImported(result.getImported() + users.size());
+        } catch (DataIntegrityViolationException e){
+            for (ImportLine line : accepted) {
+                User user = userService.dtoToEntity(line.dto());
+                try {
+                    User saved = transactionTemplate.execute(status -> repository.save(user));
+                    if(saved != null){
+                        userIndex.put(saved);
+                    }
+                    result.setImported(result.getImported() + 1);
+                } catch (DataIntegrityViolationException single){
+                    fail(result, line.number(), DUPLICATED);
+                }
+            }
+        }
+    }
+
+    private void validLine(UserDTO dto) {
+        Set<ConstraintViolation<UserDTO>> violations = validator.validate(dto);
+        if(!violations.isEmpty()){
+            throw new IllegalArgumentException(violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(", ")));
+        }
+        dto.setRole(dto.getRole().toUpperCase(Locale.ROOT));
+        userService.validDtoFields(dto);
+        dto.setCpf(UserKeys.cpf(dto.getCpf()));
+        dto.setEmail(UserKeys.email(dto.getEmail()));
+    }
+
+    private UserDTO parseJson(String line) {
+        try {
+            return reader.readValue(line);
+        } catch (JsonProcessingException e){
+            throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private Map<String, Integer> readHeader(String header) {
+        if(header == null){
+            throw new IllegalArgumentException("The CSV import must start with a header line");
+        }
+        List<String> names = splitCsv(header);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("name", "cpf", "email", "password", "role")) {
+            if(!columns.containsKey(required)){
+                throw new IllegalArgumentException("The CSV header must contain the column " + required);
+            }
+        }
+        return columns;
+    }
+
+    private UserDTO parseCsv(String line, Map<String, Integer> columns) {
+        List<String> values = splitCsv(line);
+        UserDTO dto = new UserDTO();
+        dto.setName(column(values, columns, "name"));
+        dto.setCpf(column(values, columns, "cpf"));
+        dto.setEmail(column(values, columns, "email"));
+        dto.setPassword(column(values, columns, "password"));
+        dto.setRole(column(values, columns, "role"));
+        String balance = column(values, columns, "balance");
+        if(balance != null && !balance.isBlank()){
+            try {
+                dto.setBalance(new BigDecimal(balance.trim()));
+            } catch (NumberFormatException e){
+                throw new IllegalArgumentException("The balance must be a number");
+            }
+        }
+        return dto;
+    }
+
+    private String column(List<String> values, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        return index == null || index >= values.size() ? null : values.get(index);
+    }
+
+    private List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if(quoted){
+                if(c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"'){
+                    value.append('"');
+                    i++;
+                }
+                else if(c == '"'){
+                    quoted = false;
+                }
+                else{
+                    value.append(c);
+                }
+            }
+            else if(c == '"'){
+                quoted = true;
+            }
+            else if(c == ','){
+                values.add(value.toString());
+                value.setLength(0);
+            }
+            else{
+                value.append(c);
+            }
+        }
+        if(quoted){
+            throw new IllegalArgumentException("Unterminated quoted value");
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    private void fail(ImportResultDTO result, long line, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if(result.getErrors().size() < maxErrors){
+            result.getErrors().add(new ImportErrorDTO(line, message));
+        }
+    }
+
+    private record ImportLine(long number, UserDTO dto) {
+    }
+}
@@ -0,0 +1,94 @@
+package com.bruno.api.brbank.services.impl;
+
+import com.bruno.api.brbank.entities.User;
+import com.bruno.api.brbank.repositories.UserRepository;
+import com.bruno.api.brbank.services.UserIndexService;
+import com.bruno.api.brbank.validation.UserKeys;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+@Service
+public class UserIndexServiceImpl implements UserIndexService {
+
+    private static final Long ABSENT = 0L;
+
+    private final UserRepository repository;
+    private final BloomFilter bloomFilter;
+    private final Cache<String, Long> ids;
+
+    public UserIndexServiceImpl(UserRepository repository,
+                                @Value("${bank.users.index.expected-size:1000000}") long expectedSize,
+                                @Value("${bank.users.index.false-positive-rate:0.01}") double falsePositiveRate,
+                                @Value("${bank.users.index.cache-size:200000}") long cacheSize) {
+        this.repository = repository;
+        this.bloomFilter = new BloomFilter(expectedSize * 2, falsePositiveRate);
+        this.ids = Caffeine.newBuilder().maximumSize(cacheSize).build();
+    }
+
+    @PostConstruct
+    void load() {
+        repository.scanUniqueKeys(this::put);
+    }
+
+    @Override
+    public Long findIdByCpf(String cpf) {
+        return find(cpfKey(cpf), () -> repository.findIdByCpf(UserKeys.cpf(cpf)));
+    }
+
+    @Override
+    public Long findIdByEmail(String email) {
+        return find(emailKey(email), () -> repository.findIdByEmail(UserKeys.email(email)));
+    }
+
+    @Override
+    public void put(User user) {
+        put(user.getId(), user.getCpf(), user.getEmail());
+    }
+
+    @Override
+    public void remove(User user) {
+        String cpf = cpfKey(user.getCpf());
+        String email = emailKey(user.getEmail());
+        if(cpf != null) {
+            ids.invalidate(cpf);
+        }
+        if(email != null) {
+            ids.invalidate(email);
+        }
+    }
+
+    private void put(Long id, String cpf, String email) {
+        String cpfKey = cpfKey(cpf);
+        String emailKey = emailKey(email);
+        if(cpfKey != null) {
+            bloomFilter.put(cpfKey);
+            ids.put(cpfKey, id);
+        }
+        if(emailKey != null) {
+            bloomFilter.put(emailKey);
+            ids.put(emailKey, id);
+        }
+    }
+
+    private Long find(String key, Supplier<Optional<Long>> query) {
+        if(key == null || !bloomFilter.mightContain(key)) {
+            return null;
+        }
+        Long id = ids.get(key, ignored -> query.get().orElse(ABSENT));
+        return ABSENT.equals(id) ? null : id;
+    }
+
+    private String cpfKey(String cpf) {
+        return cpf == null ? null : "cpf:" + UserKeys.cpf(cpf);
+    }
+
+    private String emailKey(String email) {
+        return email == null ? null : "email:" + UserKeys.email(email);
+    }
+}
@@ -1,25 +1,46 @@
 package com.bruno.api.brbank.services.impl;
 
+import com.bruno.api.brbank.config.CacheConfig;
+import com.bruno.api.brbank.config.ReadWriteRoutingDataSource;
+import com.bruno.api.brbank.config.ReplicaLagGuard;
+import com.bruno.api.brbank.dtos.CursorPageDTO;
 import com.bruno.api.brbank.dtos.TransferRequest;
 import com.bruno.api.brbank.dtos.UserDTO;
+import com.bruno.api.brbank.dtos.UserResponseDTO;
+import com.bruno.api.brbank.dtos.UserVersionDTO;
 import com.bruno.api.brbank.entities.User;
 import com.bruno.api.brbank.enums.UserRole;
 import com.bruno.api.brbank.repositories.UserRepository;
+import com.bruno.api.brbank.services.PasswordHashingService;
+import com.bruno.api.brbank.services.UserIndexService;
 import com.bruno.api.brbank.services.UserService;
+import com.bruno.api.brbank.validation.UserKeys;
+import com.bruno.api.brbank.validation.ValidationRules;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -27,10 +48,38 @@ import java.util.Optional;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository repository;
+    private final PasswordHashingService passwordHashingService;
+    private final UserIndexService userIndex;
+    private final ReplicaLagGuard replicaLagGuard;
+    private final CacheManager cacheManager;
+
+    @Value("${bank.users.max-page-size:100}")
+    private int maxPageSize;
+    @Value("${bank.validation.collect-all:false}")
+    private boolean collectAllErrors;
+    @Value("${bank.cache.single-node:true}")
+    private boolean singleNode;
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.USERS, key = "#user.id", condition = "#user.id != null")
     public User save(User user) {
-        return repository.save(user);
+        User saved = repository.save(user);
+        userIndex.put(saved);
+        replicaLagGuard.written(saved.getId());
+        return saved;
+    }
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRINCIPALS, key = "#current.email", condition = "#current.email != null"),
+            @CacheEvict(cacheNames = CacheConfig.USERS, key = "#current.id")
+    })
+    public User update(User current, User updated) {
+        User saved = repository.save(updated);
+        userIndex.remove(current);
+        userIndex.put(saved);
+        replicaLagGuard.written(saved.getId());
+        return saved;
     }
 
     @Override
@@ -38,95 +87,178 @@ public class UserServiceImpl implements UserService {
         return repository.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true, label = ReadWriteRoutingDataSource.REPLICA)
+    public CursorPageDTO<UserResponseDTO> findPage(Long cursor, String role, int size) {
+        validPageSize(size);
+        Long after = cursor == null ? 0L : cursor;
+        PageRequest page = PageRequest.of(0, size + 1);
+        List<UserResponseDTO> content;
+        if(role == null || role.isBlank()){
+            content = repository.findPageAfter(after, page);
+        }
+        else{
+            content = repository.findPageByRoleAfter(parseRole(role), after, page);
+        }
+        Long nextCursor = null;
+        if(content.size() > size){
+            content = content.subList(0, size);
+            nextCursor = content.get(size - 1).getId();
+        }
+        return new CursorPageDTO<>(content, nextCursor);
+    }
+
     @Override
     public Optional<User> findById(Long senderId) {
         return repository.findById(senderId);
     }
 
+    @Override
+    public Optional<User> findFreshById(Long id) {
+        return repository.findFreshById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true, label = ReadWriteRoutingDataSource.REPLICA)
+    @CachePut(cacheNames = CacheConfig.USERS, key = "#id", unless = "#result == null")
+    public Optional<UserResponseDTO> findResponseById(Long id) {
+        replicaLagGuard.reading(id);
+        return repository.findResponseById(id);
+    }
+
+    @Override
+    public Optional<UserResponseDTO> findCachedResponse(Long id) {
+        Cache users = singleNode ? cacheManager.getCache(CacheConfig.USERS) : null;
+        return Optional.ofNullable(users == null ? null : users.get(id, UserResponseDTO.class));
+    }
+
+    @Override
+    @Transactional(readOnly = true, label = ReadWriteRoutingDataSource.REPLICA)
+    public String pageTag(Long cursor, String role, int size) {
+        validPageSize(size);
+        Long after = cursor == null ? 0L : cursor;
+        PageRequest page = PageRequest.of(0, size + 1);
+        List<UserVersionDTO> versions;
+        if(role == null || role.isBlank()){
+            versions = repository.findVersionsAfter(after, page);
+        }
+        else{
+            versions = repository.findVersionsByRoleAfter(parseRole(role), after, page);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(versions.size() * 2 * Long.BYTES + 1);
+        for (int i = 0; i < versions.size() && i < size; i++) {
+            buffer.putLong(versions.get(i).getId()).putLong(versions.get(i).getVersion());
+        }
+        buffer.put((byte) (versions.size() > size ? 1 : 0));
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(buffer.array(), 0, buffer.position());
+            return "\"" + HexFormat.of().formatHex(digest.digest()) + "\"";
+        } catch (NoSuchAlgorithmException e){
+            throw new IllegalStateException(e);
+        }
+    }
+
     @Override
     public boolean existsByCpfOrEmail(String cpf, String email) {
-        return repository.existsByCpfOrEmail(cpf, email);
+        return repository.existsByCpfOrEmail(UserKeys.cpf(cpf), UserKeys.email(email));
     }
 
     @Override
     public boolean existsByEmail(String email) {
-        return repository.existsByEmail(email);
+        return repository.existsByEmail(UserKeys.email(email));
     }
 
     @Override
     public boolean existsByCpf(String cpf) {
-        return repository.existsByCpf(cpf);
+        return repository.existsByCpf(UserKeys.cpf(cpf));
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRINCIPALS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.USERS, key = "#id")
+    })
     public void deleteById(Long id) {
+        Optional<User> user = repository.findById(id);
         repository.deleteById(id);
+        user.ifPresent(userIndex::remove);
+        replicaLagGuard.written(id);
     }
 
     @Override
     public Optional<User> findByEmail(String email) {
-        return repository.findByEmail(email);
+        return repository.findByEmail(UserKeys.email(email));
     }
 
     @Override
     public Optional<User> findByCpf(String cpf) {
-        return repository.findByCpf(cpf);
+        return repository.findByCpf(UserKeys.cpf(cpf));
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRINCIPALS, key = "#user.email", condition = "#user.email != null"),
+            @CacheEvict(cacheNames = CacheConfig.USERS, key = "#user.id")
+    })
     public void delete(User user) {
         repository.delete(user);
+        userIndex.remove(user);
+        replicaLagGuard.written(user.getId());
     }
 
     @Override
     public User dtoToEntity(UserDTO dto){
         User user = new User();
         BeanUtils.copyProperties(dto, user);
+        user.setCpf(UserKeys.cpf(dto.getCpf()));
+        user.setEmail(UserKeys.email(dto.getEmail()));
         user.setRole(UserRole.valueOf(dto.getRole()));
         return user;
     }
 
     @Override
     public void validDtoToSave(UserDTO dto) {
-        if(!Objects.equals(UserRole.COMMON_USER.toString(), dto.getRole()) && !Objects.equals(UserRole.MERCHANT.toString(), dto.getRole()) && !Objects.equals(UserRole.ADMIN.toString(), dto.getRole())){
-            throw new IllegalArgumentException("Wrong user type, the types are: MERCHANT, COMMON_USER or ADMIN");
-        }
-        if(!dto.getName().matches("[A-Z][a-z].* [A-Z][a-z].*")){
-            throw new IllegalArgumentException("The name must contain at least the first and middle name");
-        }
-        if(repository.existsByCpfOrEmail(dto.getCpf(), dto.getEmail())){
+        validDtoFields(dto);
+        validUniqueness(dto, null);
+    }
+
+    @Override
+    public void validUniqueness(UserDTO dto, Long id) {
+        Long cpfOwner = userIndex.findIdByCpf(dto.getCpf());
+        Long emailOwner = userIndex.findIdByEmail(dto.getEmail());
+        if((cpfOwner != null && !cpfOwner.equals(id)) || (emailOwner != null && !emailOwner.equals(id))){
             throw new IllegalArgumentException("This email or CPF already has an associated record");
         }
+    }
+
+    @Override
+    public void validDtoFields(UserDTO dto) {
         if(dto.getBalance() == null){
-            dto.setBalance(BigDecimal.valueOf(0));
-        }
-        if(dto.getBalance().doubleValue() < 0){
-            throw new IllegalArgumentException("You cannot have a negative amount on your balance");
+            dto.setBalance(BigDecimal.ZERO);
         }
+        ValidationRules.USER_SAVE.validate(dto, null, collectAllErrors);
     }
 
     @Override
     public void updateValidation(UserDTO dto) {
-        if(!Objects.equals(UserRole.COMMON_USER.toString(), dto.getRole()) && !Objects.equals(UserRole.MERCHANT.toString(), dto.getRole())){
-            throw new IllegalArgumentException("Wrong user type, the types are: MERCHANT or USER_COMMON");
-        }
-        if(!dto.getName().matches("[A-Z][a-z].* [A-Z][a-z].*")){
-            throw new IllegalArgumentException("The name must contain at least the first and middle name");
-        }
         if(dto.getBalance() == null){
-            dto.setBalance(BigDecimal.valueOf(0));
-        }
-        if(dto.getBalance().doubleValue() < 0){
-            throw new IllegalArgumentException("You cannot have a negative amount on your balance");
+            dto.setBalance(BigDecimal.ZERO);
         }
+        ValidationRules.USER_UPDATE.validate(dto, null, collectAllErrors);
     }
 
     @Override
     public User findByEmailAndPassword(String login, String password) {
-        Optional<User> userByEmail = repository.findByEmail(login);
+        Optional<User> userByEmail = repository.findByEmail(UserKeys.email(login));
         if(userByEmail.isPresent()){
-            boolean isValid = new BCryptPasswordEncoder().matches(password, userByEmail.get().getPassword());
+            boolean isValid = passwordHashingService.matches(password, userByEmail.get().getPassword());
             if(isValid){
+                if(passwordHashingService.upgradeEncoding(userByEmail.get().getPassword())){
+                    userByEmail.get().setPassword(passwordHashingService.encode(password));
+                    repository.save(userByEmail.get());
+                    evictCachedPrincipal(userByEmail.get().getEmail());
+                }
                 return userByEmail.get();
             }
             else{
@@ -137,6 +269,7 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.PRINCIPALS, key = "#email", condition = "#email != null")
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         User user = findByEmail(email).orElse(new User());
         List<UserRole> profiles = Arrays.asList(UserRole.COMMON_USER, UserRole.ADMIN, UserRole.MERCHANT);
@@ -152,6 +285,27 @@ public class UserServiceImpl implements UserService {
         }
     }
 
+    private void evictCachedPrincipal(String email){
+        Cache principals = cacheManager.getCache(CacheConfig.PRINCIPALS);
+        if(principals != null && email != null){
+            principals.evict(email);
+        }
+    }
+
+    private void validPageSize(int size){
+        if(size < 1 || size > maxPageSize){
+            throw new IllegalArgumentException("The page size must be between 1 and " + maxPageSize);
+        }
+    }
+
+    private UserRole parseRole(String role){
+        try {
+            return UserRole.valueOf(role.toUpperCase());
+        } catch (IllegalArgumentException e){
+            throw new IllegalArgumentException("Wrong user type, the types are: MERCHANT, COMMON_USER or ADMIN");
+        }
+    }
+
     private String[] getAuthorities(List<UserRole> roles){
         String[] authorities = new String[roles.size()];
         for (int i = 0; i < roles.size(); i++){
@@ -0,0 +1,112 @@
+package com.bruno.api.brbank.validation;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+public final class RuleSet<T, C> {
+
+    private final BiPredicate<T, C>[] checks;
+    private final ValidationError[] errors;
+
+    private RuleSet(List<BiPredicate<T, C>> checks, List<ValidationError> errors) {
+        @SuppressWarnings("unchecked")
+        BiPredicate<T, C>[] array = checks.toArray(new BiPredicate[0]);
+        this.checks = array;
+        this.errors = errors.toArray(new ValidationError[0]);
+    }
+
+    public static <T, C> Builder<T, C> builder() {
+        return new Builder<>();
+    }
+
+    public ValidationError firstError(T target, C context) {
+        for (int i = 0; i < checks.length; i++) {
+            if(!checks[i].test(target, context)){
+                return errors[i];
+            }
+        }
+        return null;
+    }
+
+    public List<ValidationError> allErrors(T target, C context) {
+        List<ValidationError> found = null;
+        for (int i = 0; i < checks.length; i++) {
+            if(!checks[i].test(target, context)){
+                if(found == null){
+                    found = new ArrayList<>(checks.length - i);
+                }
+                found.add(errors[i]);
+            }
+        }
+        return found == null ? Collections.emptyList() : found;
+    }
+
+    public void validate(T target, C context, boolean collectAll) {
+        if(collectAll){
+            List<ValidationError> found = allErrors(target, context);
+            if(!found.isEmpty()){
+                throw new ValidationException(found);
+            }
+        }
+        else{
+            ValidationError error = firstError(target, context);
+            if(error != null){
+                throw new ValidationException(List.of(error));
+            }
+        }
+    }
+
+    public static final class Builder<T, C> {
+
+        private final List<BiPredicate<T, C>> checks = new ArrayList<>();
+        private final List<ValidationError> errors = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder<T, C> rule(BiPredicate<T, C> valid, ValidationCode code, String message) {
+            checks.add(Objects.requireNonNull(valid));
+            errors.add(new ValidationError(code, message));
+            return this;
+        }
+
+        public Builder<T, C> rule(Predicate<T> valid, ValidationCode code, String message) {
+            return rule((target, context) -> valid.test(target), code, message);
+        }
+
+        public Builder<T, C> matches(Function<T, String> field, String regex, ValidationCode code, String message) {
+            Pattern pattern = Pattern.compile(regex);
+            return rule(target -> {
+                String value = field.apply(target);
+                return value != null && pattern.matcher(value).matches();
+            }, code, message);
+        }
+
+        public Builder<T, C> oneOf(Function<T, String> field, Set<String> allowed, ValidationCode code, String message) {
+            Set<String> values = Set.copyOf(allowed);
+            return rule(target -> {
+                String value = field.apply(target);
+                return value != null && values.contains(value);
+            }, code, message);
+        }
+
+        public Builder<T, C> notNegative(Function<T, BigDecimal> field, ValidationCode code, String message) {
+            return rule(target -> {
+                BigDecimal value = field.apply(target);
+                return value == null || value.signum() >= 0;
+            }, code, message);
+        }
+
+        public RuleSet<T, C> build() {
+            return new RuleSet<>(checks, errors);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.bruno.api.brbank.validation;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+public final class UserKeys {
+
+    private static final Pattern NON_DIGITS = Pattern.compile("\\D");
+
+    public static String cpf(String cpf) {
+        return cpf == null ? null : NON_DIGITS.matcher(cpf).replaceAll("");
+    }
+
+    public static String email(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private UserKeys() {
+    }
+}
@@ -0,0 +1,12 @@
+package com.bruno.api.brbank.validation;
+
+public enum ValidationCode {
+    USER_ROLE_INVALID,
+    USER_NAME_INVALID,
+    USER_BALANCE_NEGATIVE,
+    TRANSFER_INSUFFICIENT_BALANCE,
+    TRANSFER_AMOUNT_ZERO,
+    TRANSFER_AMOUNT_NEGATIVE,
+    TRANSFER_SENDER_MERCHANT,
+    TRANSFER_SELF
+}
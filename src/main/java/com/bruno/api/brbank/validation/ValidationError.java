@@ -0,0 +1,4 @@
+package com.bruno.api.brbank.validation;
+
+public record ValidationError(ValidationCode code, String message) {
+}
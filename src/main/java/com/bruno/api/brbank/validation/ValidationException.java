@@ -0,0 +1,16 @@
+package com.bruno.api.brbank.validation;
+
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class ValidationException extends IllegalArgumentException {
+
+    private final List<ValidationError> errors;
+
+    public ValidationException(List<ValidationError> errors) {
+        super(errors.get(0).message());
+        this.errors = errors;
+    }
+}
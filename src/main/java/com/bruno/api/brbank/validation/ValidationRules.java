@@ -0,0 +1,40 @@
+package com.bruno.api.brbank.validation;
+
+import com.bruno.api.brbank.dtos.TransferRequest;
+import com.bruno.api.brbank.dtos.UserDTO;
+import com.bruno.api.brbank.entities.User;
+import com.bruno.api.brbank.enums.UserRole;
+
+import java.util.Objects;
+import java.util.Set;
+
+public final class ValidationRules {
+
+    private static final String NAME = "[A-Z][a-z].* [A-Z][a-z].*";
+
+    public static final RuleSet<UserDTO, Void> USER_SAVE = RuleSet.<UserDTO, Void>builder()
+            .oneOf(UserDTO::getRole, Set.of(UserRole.COMMON_USER.name(), UserRole.MERCHANT.name(), UserRole.ADMIN.name()),
+                    ValidationCode.USER_ROLE_INVALID, "Wrong user type, the types are: MERCHANT, COMMON_USER or ADMIN")
+            .matches(UserDTO::getName, NAME, ValidationCode.USER_NAME_INVALID, "The name must contain at least the first and middle name")
+            .notNegative(UserDTO::getBalance, ValidationCode.USER_BALANCE_NEGATIVE, "You cannot have a negative amount on your balance")
+            .build();
+
+    public static final RuleSet<UserDTO, Void> USER_UPDATE = RuleSet.<UserDTO, Void>builder()
+            .oneOf(UserDTO::getRole, Set.of(UserRole.COMMON_USER.name(), UserRole.MERCHANT.name()),
+                    ValidationCode.USER_ROLE_INVALID, "Wrong user type, the types are: MERCHANT or USER_COMMON")
+            .matches(UserDTO::getName, NAME, ValidationCode.USER_NAME_INVALID, "The name must contain at least the first and middle name")
+            .notNegative(UserDTO::getBalance, ValidationCode.USER_BALANCE_NEGATIVE, "You cannot have a negative amount on your balance")
+            .build();
+
+    public static final RuleSet<TransferRequest, User> TRANSFER = RuleSet.<TransferRequest, User>builder()
+            .rule((request, sender) -> sender.getBalance().compareTo(request.getValue()) >= 0,
+                    ValidationCode.TRANSFER_INSUFFICIENT_BALANCE, "Not enough balance for the transfer")
+            .rule(request -> request.getValue().signum() != 0, ValidationCode.TRANSFER_AMOUNT_ZERO, "The transfer amount cannot be 0")
+            .rule(request -> request.getValue().signum() >= 0, ValidationCode.TRANSFER_AMOUNT_NEGATIVE, "Transactions with negative amounts are not permitted")
+            .rule((request, sender) -> sender.getRole() != UserRole.MERCHANT, ValidationCode.TRANSFER_SENDER_MERCHANT, "Merchant cannot send money")
+            .rule(request -> !Objects.equals(request.getRecipient(), request.getSenderId()), ValidationCode.TRANSFER_SELF, "It is not allowed to make a transaction for yourself")
+            .build();
+
+    private ValidationRules() {
+    }
+}
@@ -0,0 +1,42 @@
+package com.bruno.api.brbank.config;
+
+import com.bruno.api.brbank.dtos.TransferDTO;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+class BinaryFormatConfigTest {
+
+    private final BinaryFormatConfig config = new BinaryFormatConfig();
+
+    @Test
+    void whenClientAcceptsCborThenRoundTripTransfer() throws Exception {
+        assertRoundTrip(config.cborHttpMessageConverter(new Jackson2ObjectMapperBuilder()), MediaType.APPLICATION_CBOR);
+    }
+
+    @Test
+    void whenClientAcceptsSmileThenRoundTripTransfer() throws Exception {
+        assertRoundTrip(config.smileHttpMessageConverter(new Jackson2ObjectMapperBuilder()), MediaType.parseMediaType("application/x-jackson-smile"));
+    }
+
+    private void assertRoundTrip(AbstractJackson2HttpMessageConverter converter, MediaType mediaType) throws Exception {
+        TransferDTO transfer = new TransferDTO(7L, "Bruno Silva", 1L, "Wallace Silva", 2L, new BigDecimal("10.50"), LocalDateTime.of(2024, 3, 10, 9, 30));
+        Assertions.assertTrue(converter.canWrite(TransferDTO.class, mediaType));
+
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(transfer, mediaType, output);
+        TransferDTO read = (TransferDTO) converter.read(TransferDTO.class, new MockHttpInputMessage(output.getBodyAsBytes()));
+
+        Assertions.assertEquals(mediaType, output.getHeaders().getContentType());
+        Assertions.assertEquals(7L, read.getId());
+        Assertions.assertEquals(0, new BigDecimal("10.50").compareTo(read.getValue()));
+        Assertions.assertEquals(transfer.getCreatedAt(), read.getCreatedAt());
+    }
+}
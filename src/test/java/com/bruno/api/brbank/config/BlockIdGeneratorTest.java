@@ -0,0 +1,88 @@
+package com.bruno.api.brbank.config;
+
+import com.bruno.api.brbank.entities.Transfers;
+import com.bruno.api.brbank.repositories.TransferRepositoryCustomImpl;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+class BlockIdGeneratorTest {
+
+    private static final String URL = "jdbc:h2:mem:block_ids;DB_CLOSE_DELAY=-1;NON_KEYWORDS=VALUE";
+
+    private final List<SessionFactory> factories = new ArrayList<>();
+
+    @AfterEach
+    void tearDown(){
+        for (int i = factories.size() - 1; i >= 0; i--) {
+            factories.get(i).close();
+        }
+    }
+
+    @Test
+    void whenTransfersAlreadyExistThenIdsStartAfterTheHighestOne() {
+        SessionFactory factory = factory("create-drop");
+        factory.inTransaction(session -> session.createNativeMutationQuery(
+                "INSERT INTO transfers_tb (id, sender_id, recipient_id, value, status) VALUES (100, 1, 2, 10, 'EFFECTED')").executeUpdate());
+
+        Assertions.assertEquals(101L, persist(factory));
+        Assertions.assertEquals(102L, persist(factory));
+    }
+
+    @Test
+    void whenBlockIsExhaustedThenNodesReserveDisjointBlocks() {
+        SessionFactory first = factory("create-drop");
+        SessionFactory second = factory("none");
+
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(persist(first));
+        }
+        ids.add(nextId(second));
+        ids.add(persist(first));
+        ids.add(nextId(second));
+
+        Assertions.assertEquals(List.of(1L, 2L, 3L, 4L, 7L, 5L), ids);
+        Long stored = first.fromTransaction(session -> ((Number) session.createNativeQuery(
+                "SELECT next_val FROM " + BlockIdGenerator.TABLE_NAME + " WHERE sequence_name = 'transfers'", Object.class).getSingleResult()).longValue());
+        Assertions.assertEquals(9L, stored);
+    }
+
+    private Long persist(SessionFactory factory) {
+        return factory.fromTransaction(session -> {
+            Transfers transfer = new Transfers();
+            transfer.setSenderId(1L);
+            transfer.setRecipientId(2L);
+            transfer.setValue(BigDecimal.TEN);
+            session.persist(transfer);
+            return transfer.getId();
+        });
+    }
+
+    private Long nextId(SessionFactory factory) {
+        return factory.fromTransaction(session -> new TransferRepositoryCustomImpl(session.unwrap(EntityManager.class), null).nextId());
+    }
+
+    private SessionFactory factory(String schemaAction) {
+        SessionFactory factory = new MetadataSources(new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.URL, URL)
+                .applySetting(AvailableSettings.USER, "sa")
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, schemaAction)
+                .applySetting(BlockIdGenerator.BLOCK_SIZE, 3)
+                .build())
+                .addAnnotatedClass(Transfers.class)
+                .buildMetadata()
+                .buildSessionFactory();
+        factories.add(factory);
+        return factory;
+    }
+}
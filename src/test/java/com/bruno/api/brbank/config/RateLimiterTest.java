@@ -0,0 +1,58 @@
+package com.bruno.api.brbank.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void whenBurstIsSpentThenReturnTheWaitForTheNextToken() {
+        RateLimiter limiter = new RateLimiter(true, 10, 3, 10, 100, new SimpleMeterRegistry());
+        long now = 0;
+
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertEquals(0, limiter.reserve("bruno@gmail.com", now));
+        }
+        Assertions.assertEquals(SECOND / 10, limiter.reserve("bruno@gmail.com", now));
+        Assertions.assertEquals(0, limiter.reserve("other@gmail.com", now));
+        Assertions.assertEquals(0, limiter.reserve("bruno@gmail.com", now + SECOND / 10));
+    }
+
+    @Test
+    void whenRequestIsRejectedThenItDoesNotConsumeATokenAndIsCounted() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RateLimiter limiter = new RateLimiter(true, 1, 1, 10, 100, registry);
+
+        Assertions.assertEquals(0, limiter.reserve("bruno@gmail.com", 0));
+        Assertions.assertTrue(limiter.reserve("bruno@gmail.com", SECOND / 2) > 0);
+        Assertions.assertTrue(limiter.reserve("bruno@gmail.com", SECOND / 2) > 0);
+        Assertions.assertEquals(0, limiter.reserve("bruno@gmail.com", SECOND));
+        Assertions.assertEquals(2, registry.get(RateLimiter.REJECTED).tag("reason", "user").counter().count());
+    }
+
+    @Test
+    void whenConcurrencyLimitIsReachedThenRejectUntilARequestExits() {
+        RateLimiter limiter = new RateLimiter(true, 10, 1, 2, 100, new SimpleMeterRegistry());
+
+        Assertions.assertTrue(limiter.enter());
+        Assertions.assertTrue(limiter.enter());
+        Assertions.assertFalse(limiter.enter());
+        limiter.exit();
+        Assertions.assertTrue(limiter.enter());
+    }
+
+    @Test
+    void whenDisabledThenAdmitEverything() {
+        RateLimiter limiter = new RateLimiter(false, 1, 1, 1, 100, new SimpleMeterRegistry());
+
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertEquals(0, limiter.reserve("bruno@gmail.com", 0));
+            Assertions.assertTrue(limiter.enter());
+        }
+    }
+}
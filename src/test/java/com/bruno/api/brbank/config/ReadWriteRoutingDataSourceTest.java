@@ -0,0 +1,105 @@
+package com.bruno.api.brbank.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.interceptor.RuleBasedTransactionAttribute;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+    private ReplicaLagGuard replicaLagGuard;
+
+    @BeforeEach
+    void setUp(){
+        DataSource primary = database("primary");
+        DataSource replica = database("replica");
+        DataSource dataSource = new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource) {
+            @Override
+            protected void doBegin(Object transaction, TransactionDefinition definition) {
+                ReadWriteRoutingDataSource.begin(definition);
+                super.doBegin(transaction, definition);
+            }
+
+            @Override
+            protected void doCleanupAfterCompletion(Object transaction) {
+                super.doCleanupAfterCompletion(transaction);
+                ReadWriteRoutingDataSource.clear();
+            }
+        };
+        replicaLagGuard = new ReplicaLagGuard(true, Duration.ofMinutes(1), 100);
+    }
+
+    @AfterEach
+    void tearDown(){
+        ReadWriteRoutingDataSource.clear();
+    }
+
+    @Test
+    void whenReadOnlyTransactionIsLabelledThenReadFromTheReplica() {
+        Assertions.assertEquals("replica", inTransaction(true, List.of(ReadWriteRoutingDataSource.REPLICA), () -> {}));
+    }
+
+    @Test
+    void whenTransactionIsNotLabelledOrWritesThenUseThePrimary() {
+        Assertions.assertEquals("primary", inTransaction(true, List.of(), () -> {}));
+        Assertions.assertEquals("primary", inTransaction(false, List.of(ReadWriteRoutingDataSource.REPLICA), () -> {}));
+        Assertions.assertEquals("primary", jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    @Test
+    void whenUserWasJustWrittenThenReadItFromThePrimary() {
+        replicaLagGuard.written(7L);
+
+        Assertions.assertEquals("primary", inTransaction(true, List.of(ReadWriteRoutingDataSource.REPLICA), () -> replicaLagGuard.reading(7L)));
+        Assertions.assertEquals("replica", inTransaction(true, List.of(ReadWriteRoutingDataSource.REPLICA), () -> replicaLagGuard.reading(8L)));
+    }
+
+    @Test
+    void whenWriteHappensInsideATransactionThenTrackItOnlyAfterCommit() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.executeWithoutResult(status -> {
+            replicaLagGuard.written(9L);
+            status.setRollbackOnly();
+        });
+
+        Assertions.assertEquals("replica", inTransaction(true, List.of(ReadWriteRoutingDataSource.REPLICA), () -> replicaLagGuard.reading(9L)));
+    }
+
+    private String inTransaction(boolean readOnly, List<String> labels, Runnable beforeQuery) {
+        RuleBasedTransactionAttribute attribute = new RuleBasedTransactionAttribute();
+        attribute.setReadOnly(readOnly);
+        attribute.setLabels(labels);
+        TransactionStatus status = transactionManager.getTransaction(attribute);
+        try {
+            beforeQuery.run();
+            return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+        } finally {
+            transactionManager.commit(status);
+        }
+    }
+
+    private DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(16))");
+        template.update("DELETE FROM node");
+        template.update("INSERT INTO node (name) VALUES (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,51 @@
+package com.bruno.api.brbank.config;
+
+import com.bruno.api.brbank.entities.User;
+import com.bruno.api.brbank.enums.UserRole;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+
+class TokenServiceTest {
+
+    public static final String EMAIL = "bruno@gmail.com";
+
+    private TokenService tokenService;
+    private User user;
+
+    @BeforeEach
+    void setUp(){
+        tokenService = new TokenService();
+        ReflectionTestUtils.setField(tokenService, "secret", "test-secret");
+        ReflectionTestUtils.setField(tokenService, "cacheMaxSize", 10L);
+        tokenService.init();
+        user = new User(1L, "Bruno Silva", "13711695000", EMAIL, "12345", UserRole.COMMON_USER, BigDecimal.valueOf(100));
+    }
+
+    @Test
+    void whenValidateGeneratedTokenThenReturnSubject() {
+        String token = tokenService.generateToken(user);
+        Assertions.assertEquals(EMAIL, tokenService.validateToken(token));
+        Assertions.assertEquals(EMAIL, tokenService.validateToken(token));
+    }
+
+    @Test
+    void whenValidateTamperedTokenThenReturnEmpty() {
+        String token = tokenService.generateToken(user);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+        Assertions.assertEquals("", tokenService.validateToken(tampered));
+    }
+
+    @Test
+    void whenValidateTokenSignedWithOtherSecretThenReturnEmpty() {
+        TokenService other = new TokenService();
+        ReflectionTestUtils.setField(other, "secret", "other-secret");
+        ReflectionTestUtils.setField(other, "cacheMaxSize", 10L);
+        other.init();
+        Assertions.assertEquals(EMAIL, other.validateToken(other.generateToken(user)));
+        Assertions.assertEquals("", tokenService.validateToken(other.generateToken(user)));
+    }
+}
@@ -1,23 +1,40 @@
 package com.bruno.api.brbank.controllers;
 
+import com.bruno.api.brbank.config.StageMetrics;
+import com.bruno.api.brbank.dtos.CursorPageDTO;
 import com.bruno.api.brbank.dtos.TransferRequest;
 import com.bruno.api.brbank.dtos.UserDTO;
 import com.bruno.api.brbank.dtos.UserResponseDTO;
 import com.bruno.api.brbank.entities.User;
 import com.bruno.api.brbank.enums.UserRole;
+import com.bruno.api.brbank.exceptions.PreconditionFailedException;
+import com.bruno.api.brbank.services.AsyncTransferService;
+import com.bruno.api.brbank.services.DailyBalanceService;
+import com.bruno.api.brbank.services.IdempotencyService;
+import com.bruno.api.brbank.services.LedgerService;
+import com.bruno.api.brbank.services.PasswordHashingService;
+import com.bruno.api.brbank.services.TransferExportService;
+import com.bruno.api.brbank.services.TransferService;
+import com.bruno.api.brbank.services.UserImportService;
 import com.bruno.api.brbank.services.UserService;
+import com.bruno.api.brbank.services.impl.UserServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
-import org.springframework.beans.BeanUtils;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -39,10 +56,34 @@ class UserControllerTest {
     private UserDTO dto;
     @Mock
     private UserService service;
+    @Mock
+    private TransferService transferService;
+    @Mock
+    private LedgerService ledgerService;
+    @Mock
+    private PasswordHashingService passwordHashingService;
+    @Spy
+    private StageMetrics stageMetrics = new StageMetrics(new SimpleMeterRegistry());
+    @Mock
+    private IdempotencyService idempotencyService;
+    @Mock
+    private AsyncTransferService asyncTransferService;
+    @Mock
+    private UserImportService userImportService;
+    @Mock
+    private DailyBalanceService dailyBalanceService;
+    @Mock
+    private TransferExportService transferExportService;
 
     @BeforeEach
     void setUp(){
         MockitoAnnotations.openMocks(this);
+        Mockito.when(idempotencyService.execute(Mockito.any(), Mockito.any(), Mockito.anyString(), Mockito.any()))
+                .thenAnswer(invocation -> invocation.<Supplier<ResponseEntity<String>>>getArgument(3).get());
+        Mockito.when(ledgerService.exclusive(Mockito.any(), Mockito.any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        UserServiceImpl mapper = new UserServiceImpl(null, null, null, null, null);
+        Mockito.when(service.dtoToEntity(Mockito.any())).thenAnswer(invocation -> mapper.dtoToEntity(invocation.getArgument(0)));
         startUser();
     }
 
@@ -56,63 +97,63 @@ class UserControllerTest {
 
     @Test
     void whenTransferThenReturnSuccess() {
-        User sender = new User();
-        BeanUtils.copyProperties(user, sender);
-        sender.setRole(UserRole.COMMON_USER);
-
-        User recipient = new User();
-        recipient.setName("Wallace Silva");
-        recipient.setCpf("45597409093");
-        recipient.setEmail("wallace@gmail.com");
-        recipient.setPassword("1234");
-        recipient.setRole(UserRole.COMMON_USER);
-        recipient.setBalance(BigDecimal.valueOf(0));
-        recipient.setId(2L);
-
         TransferRequest transferRequest = new TransferRequest();
-        transferRequest.setSenderId(sender.getId());
-        transferRequest.setRecipient(recipient.getId());
+        transferRequest.setSenderId(user.getId());
+        transferRequest.setRecipient(2L);
         transferRequest.setValue(BigDecimal.valueOf(23.39));
 
-        Mockito.when(service.findById(sender.getId())).thenReturn(Optional.of(sender));
-        Mockito.when(service.findById(recipient.getId())).thenReturn(Optional.of(recipient));
-        ResponseEntity<?> responseEntity = controller.transferMethod(transferRequest);
+        ResponseEntity<?> responseEntity = controller.transferMethod(null, transferRequest, null);
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
         assertEquals("Transfer completed successfully", responseEntity.getBody());
-        assertEquals(sender.getBalance().add(transferRequest.getValue()).subtract(transferRequest.getValue()), sender.getBalance());
-        assertEquals(transferRequest.getValue(), recipient.getBalance());
+        Mockito.verify(transferService).transfer(transferRequest);
+        Mockito.verify(service, Mockito.never()).save(Mockito.any());
     }
 
     @Test
-    void whenTransferThenReturnAnErrorBecauseInsufficientBalance(){
-        User sender = new User();
-        BeanUtils.copyProperties(user, sender);
-        sender.setRole(UserRole.COMMON_USER);
-        sender.setBalance(BigDecimal.valueOf(10));
-
-        User recipient = new User();
-        recipient.setName("Wallace Silva");
-        recipient.setCpf("45597409093");
-        recipient.setEmail("wallace@gmail.com");
-        recipient.setPassword("1234");
-        recipient.setRole(UserRole.COMMON_USER);
-        recipient.setBalance(BigDecimal.valueOf(0));
-        recipient.setId(2L);
+    void whenTransferInAtomicModeThenNoUserIsLoaded() {
+        TransferRequest transferRequest = new TransferRequest();
+        transferRequest.setSenderId(user.getId());
+        transferRequest.setRecipient(2L);
+        transferRequest.setValue(BigDecimal.valueOf(23.39));
+
+        Mockito.when(transferService.isAtomic()).thenReturn(true);
+        ResponseEntity<?> responseEntity = controller.transferMethod(null, transferRequest, null);
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        Mockito.verify(transferService).transferAtomically(transferRequest);
+        Mockito.verify(service, Mockito.never()).findById(Mockito.any());
+        Mockito.verify(service, Mockito.never()).findFreshById(Mockito.any());
+        Mockito.verify(service, Mockito.never()).save(Mockito.any());
+    }
+
+    @Test
+    void whenTransferInAsyncModeThenReturnAccepted() {
+        TransferRequest transferRequest = new TransferRequest();
+        transferRequest.setSenderId(user.getId());
+        transferRequest.setRecipient(2L);
+        transferRequest.setValue(BigDecimal.valueOf(23.39));
+
+        Mockito.when(asyncTransferService.isEnabled()).thenReturn(true);
+        Mockito.when(asyncTransferService.submit(transferRequest)).thenReturn(7L);
+        ResponseEntity<?> responseEntity = controller.transferMethod(null, transferRequest, null);
+        assertEquals(HttpStatus.ACCEPTED, responseEntity.getStatusCode());
+        assertEquals("7", responseEntity.getBody());
+        assertEquals("/api/bank/users/transfers/7", responseEntity.getHeaders().getLocation().toString());
+        Mockito.verify(service, Mockito.never()).findById(Mockito.any());
+    }
 
+    @Test
+    void whenTransferThenReturnAnErrorBecauseInsufficientBalance(){
         TransferRequest transferRequest = new TransferRequest();
-        transferRequest.setSenderId(sender.getId());
-        transferRequest.setRecipient(recipient.getId());
+        transferRequest.setSenderId(user.getId());
+        transferRequest.setRecipient(2L);
         transferRequest.setValue(BigDecimal.valueOf(20));
 
-        Mockito.when(service.findById(sender.getId())).thenReturn(Optional.of(sender));
-        Mockito.when(service.findById(recipient.getId())).thenReturn(Optional.of(recipient));
+        Mockito.doThrow(new IllegalArgumentException("Not enough balance for the transfer")).when(transferService).transfer(transferRequest);
         try{
-            controller.transferMethod(transferRequest);
+            controller.transferMethod(null, transferRequest, null);
         } catch (Exception e){
             Assertions.assertEquals("Not enough balance for the transfer", e.getMessage());
             Assertions.assertEquals(e.getClass(), IllegalArgumentException.class);
-            Assertions.assertEquals(BigDecimal.ZERO, recipient.getBalance());
-            Assertions.assertEquals(BigDecimal.valueOf(10), sender.getBalance());
         }
     }
 
@@ -132,11 +173,11 @@ class UserControllerTest {
     @Test
     public void whenUpdateThenReturnAnException() {
         Mockito.when(service.findById(ID)).thenReturn(Optional.of(user));
-        Mockito.when(service.existsByEmail(dto.getEmail())).thenReturn(true);
-        Mockito.when(service.existsByCpf(dto.getCpf())).thenReturn(false);
+        Mockito.doThrow(new IllegalArgumentException("This email or CPF already has an associated record"))
+                .when(service).validUniqueness(dto, ID);
 
         try {
-            controller.update(dto, ID);
+            controller.update(dto, ID, null);
         } catch (Exception e){
             Assertions.assertEquals("This email or CPF already has an associated record", e.getMessage());
             Assertions.assertEquals(e.getClass(), IllegalArgumentException.class);
@@ -160,24 +201,104 @@ class UserControllerTest {
     }
 
     @Test
-    void whenFindAllReturnAnListOfUsers() {
-
-        Mockito.when(service.findAll()).thenReturn(List.of(user));
+    void whenFindAllReturnAPageOfUsers() {
+        UserResponseDTO userResponseDTO = new UserResponseDTO(ID, NAME, CPF, EMAIL, BALANCE, USER_TYPE);
+        Mockito.when(service.pageTag(null, null, 20)).thenReturn("\"page\"");
+        Mockito.when(service.findPage(null, null, 20)).thenReturn(new CursorPageDTO<>(List.of(userResponseDTO), null));
 
-        List<User> response = controller.allUsers();
+        ResponseEntity<CursorPageDTO<UserResponseDTO>> entity = controller.allUsers(null, null, 20, webRequest(null));
+        Assertions.assertEquals("\"page\"", entity.getHeaders().getETag());
+        CursorPageDTO<UserResponseDTO> response = entity.getBody();
         Assertions.assertNotNull(response);
-        Assertions.assertEquals(User.class, response.get(0).getClass());
-        Assertions.assertEquals(response.get(0).getId(), ID);
+        Assertions.assertEquals(UserResponseDTO.class, response.getContent().get(0).getClass());
+        Assertions.assertEquals(ID, response.getContent().get(0).getId());
+        Assertions.assertEquals(USER_TYPE.toString(), response.getContent().get(0).getRole());
+        Assertions.assertNull(response.getNextCursor());
     }
 
     @Test
-    void whenFindUserByIdThenReturnSuccess() {
+    void whenPageIsUnchangedThenReturnNotModified() {
+        Mockito.when(service.pageTag(null, null, 20)).thenReturn("\"page\"");
+        ServletWebRequest request = webRequest("\"page\"");
+
+        Assertions.assertNull(controller.allUsers(null, null, 20, request));
+        Assertions.assertEquals(HttpStatus.NOT_MODIFIED.value(), request.getResponse().getStatus());
+        Mockito.verify(service, Mockito.never()).findPage(Mockito.any(), Mockito.any(), Mockito.anyInt());
+    }
 
-        Mockito.when(service.findById(Mockito.anyLong())).thenReturn(Optional.ofNullable(user));
+    @Test
+    void whenFindUserByIdThenReturnSuccess() {
+        Mockito.when(service.findCachedResponse(ID)).thenReturn(Optional.empty());
+        Mockito.when(service.findResponseById(Mockito.anyLong()))
+                .thenReturn(Optional.of(new UserResponseDTO(ID, NAME, CPF, EMAIL, BALANCE, USER_TYPE, 3L)));
 
-        ResponseEntity<UserResponseDTO> response = controller.getById(ID);
+        ResponseEntity<UserResponseDTO> response = controller.getById(ID, webRequest(null));
         Assertions.assertNotNull(response.getBody());
         Assertions.assertEquals(UserResponseDTO.class, response.getBody().getClass());
+        Assertions.assertEquals("\"1-3\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void whenResponseIsCachedThenSkipTheQuery() {
+        UserResponseDTO cached = new UserResponseDTO(ID, NAME, CPF, EMAIL, BALANCE, USER_TYPE, 3L);
+        Mockito.when(service.findCachedResponse(ID)).thenReturn(Optional.of(cached));
+
+        ResponseEntity<UserResponseDTO> response = controller.getById(ID, webRequest(null));
+        Assertions.assertSame(cached, response.getBody());
+        Assertions.assertEquals("\"1-3\"", response.getHeaders().getETag());
+        Mockito.verify(service, Mockito.never()).findResponseById(Mockito.anyLong());
+    }
+
+    @Test
+    void whenUserIsUnchangedThenReturnNotModified() {
+        Mockito.when(service.findCachedResponse(ID))
+                .thenReturn(Optional.of(new UserResponseDTO(ID, NAME, CPF, EMAIL, BALANCE, USER_TYPE, 3L)));
+        ServletWebRequest request = webRequest("\"1-3\"");
+
+        Assertions.assertNull(controller.getById(ID, request));
+        Assertions.assertEquals(HttpStatus.NOT_MODIFIED.value(), request.getResponse().getStatus());
+        Mockito.verify(service, Mockito.never()).findResponseById(Mockito.anyLong());
+    }
+
+    @Test
+    void whenUpdateWithStaleIfMatchThenReturnPreconditionFailed() {
+        user.setVersion(4L);
+        Mockito.when(service.findById(ID)).thenReturn(Optional.of(user));
+
+        assertThrows(PreconditionFailedException.class, () -> controller.update(dto, ID, "\"1-3\""));
+        Mockito.verify(service, Mockito.never()).update(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void whenUpdateWithCurrentIfMatchThenKeepTheReadVersion() {
+        user.setVersion(4L);
+        Mockito.when(service.findById(ID)).thenReturn(Optional.of(user));
+
+        controller.update(dto, ID, "\"1-4\"");
+        ArgumentCaptor<User> updated = ArgumentCaptor.forClass(User.class);
+        Mockito.verify(service).update(Mockito.eq(user), updated.capture());
+        Assertions.assertEquals(4L, updated.getValue().getVersion());
+    }
+
+    @Test
+    void whenUpdateWithFormattedCpfAndEmailThenStoreTheNormalisedKeys() {
+        Mockito.when(service.findById(ID)).thenReturn(Optional.of(user));
+        dto.setCpf("137.116.950-00");
+        dto.setEmail(" Bruno@Gmail.com ");
+
+        controller.update(dto, ID, null);
+        ArgumentCaptor<User> updated = ArgumentCaptor.forClass(User.class);
+        Mockito.verify(service).update(Mockito.eq(user), updated.capture());
+        Assertions.assertEquals("13711695000", updated.getValue().getCpf());
+        Assertions.assertEquals("bruno@gmail.com", updated.getValue().getEmail());
+    }
+
+    private ServletWebRequest webRequest(String ifNoneMatch){
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/bank/users/");
+        if(ifNoneMatch != null){
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
     }
 
     private void startUser(){
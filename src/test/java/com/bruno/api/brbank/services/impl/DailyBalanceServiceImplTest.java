@@ -0,0 +1,143 @@
+package com.bruno.api.brbank.services.impl;
+
+import com.bruno.api.brbank.config.ReplicaLagGuard;
+import com.bruno.api.brbank.dtos.StatementDTO;
+import com.bruno.api.brbank.entities.DailyBalance;
+import com.bruno.api.brbank.entities.Transfers;
+import com.bruno.api.brbank.enums.TransferStatus;
+import com.bruno.api.brbank.repositories.DailyBalanceRepository;
+import com.bruno.api.brbank.repositories.UserRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+class DailyBalanceServiceImplTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 10);
+
+    @Mock
+    private DailyBalanceRepository repository;
+    @Mock
+    private UserRepository userRepository;
+
+    private DailyBalanceServiceImpl service;
+
+    @BeforeEach
+    void setUp(){
+        MockitoAnnotations.openMocks(this);
+        service = new DailyBalanceServiceImpl(repository, userRepository, new ReplicaLagGuard(false, Duration.ofSeconds(2), 1000));
+        ReflectionTestUtils.setField(service, "maxDays", 366);
+    }
+
+    @Test
+    void whenRecordingTransfersThenAggregatePerUserAndDay() {
+        List<Transfers> transfers = List.of(
+                transfer(10L, 1L, 2L, "30", "70", "30", DAY.atTime(9, 0)),
+                transfer(11L, 1L, 2L, "20", "50", "50", DAY.atTime(10, 0)),
+                transfer(12L, 2L, 1L, "5", "45", "55", DAY.plusDays(1).atTime(8, 0)));
+        Transfers failed = transfer(13L, 1L, 2L, "1", null, null, DAY.atTime(11, 0));
+        failed.setStatus(TransferStatus.FAILURE);
+        List<Transfers> all = new ArrayList<>(transfers);
+        all.add(failed);
+
+        service.record(all);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<DailyBalance>> captor = ArgumentCaptor.forClass(Collection.class);
+        Mockito.verify(repository).addAll(captor.capture());
+        List<DailyBalance> deltas = new ArrayList<>(captor.getValue());
+        Assertions.assertEquals(4, deltas.size());
+
+        DailyBalance sender = deltas.get(0);
+        Assertions.assertEquals(1L, sender.getUserId());
+        Assertions.assertEquals(DAY, sender.getDay());
+        Assertions.assertEquals(new BigDecimal("50"), sender.getOutflow());
+        Assertions.assertEquals(BigDecimal.ZERO, sender.getInflow());
+        Assertions.assertEquals(2L, sender.getTransferCount());
+        Assertions.assertEquals(new BigDecimal("50"), sender.getClosingBalance());
+
+        DailyBalance recipient = deltas.get(1);
+        Assertions.assertEquals(2L, recipient.getUserId());
+        Assertions.assertEquals(new BigDecimal("50"), recipient.getInflow());
+        Assertions.assertEquals(new BigDecimal("50"), recipient.getClosingBalance());
+    }
+
+    @Test
+    void whenPeriodHasRollupsThenOpeningComesFromTheFirstDay() {
+        Mockito.when(repository.findByUserIdAndDayBetweenOrderByDayAsc(1L, DAY, DAY.plusDays(6))).thenReturn(List.of(
+                rollup(DAY.plusDays(1), "10", "40", 2L, "70"),
+                rollup(DAY.plusDays(3), "25", "0", 1L, "95")));
+
+        StatementDTO statement = service.statement(1L, DAY, DAY.plusDays(6));
+
+        Assertions.assertEquals(new BigDecimal("100"), statement.getOpeningBalance());
+        Assertions.assertEquals(new BigDecimal("95"), statement.getClosingBalance());
+        Assertions.assertEquals(new BigDecimal("35"), statement.getInflow());
+        Assertions.assertEquals(new BigDecimal("40"), statement.getOutflow());
+        Assertions.assertEquals(3L, statement.getTransferCount());
+        Assertions.assertEquals(2, statement.getDays().size());
+        Mockito.verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void whenNoRollupBeforeTheDateThenDeriveTheBalanceFromTheNextOne() {
+        Mockito.when(repository.findFirstByUserIdAndDayLessThanEqualOrderByDayDesc(1L, DAY)).thenReturn(Optional.empty());
+        Mockito.when(repository.findFirstByUserIdAndDayGreaterThanOrderByDayAsc(1L, DAY))
+                .thenReturn(Optional.of(rollup(DAY.plusDays(2), "10", "40", 2L, "70")));
+
+        Assertions.assertEquals(new BigDecimal("100"), service.balanceAt(1L, DAY));
+    }
+
+    @Test
+    void whenUserHasNoRollupsThenOnlyTheCurrentBalanceIsRead() {
+        Mockito.when(repository.findFirstByUserIdAndDayLessThanEqualOrderByDayDesc(1L, DAY)).thenReturn(Optional.empty());
+        Mockito.when(repository.findFirstByUserIdAndDayGreaterThanOrderByDayAsc(1L, DAY)).thenReturn(Optional.empty());
+        Mockito.when(userRepository.findBalanceById(1L)).thenReturn(Optional.of(new BigDecimal("42")));
+
+        Assertions.assertEquals(new BigDecimal("42"), service.balanceAt(1L, DAY));
+        Mockito.verify(userRepository, Mockito.never()).findById(Mockito.any());
+    }
+
+    @Test
+    void whenPeriodIsTooLongThenThrowIllegalArgumentException() {
+        IllegalArgumentException exception = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> service.statement(1L, DAY, DAY.plusDays(366)));
+        Assertions.assertEquals("The statement period cannot be longer than 366 days", exception.getMessage());
+    }
+
+    private Transfers transfer(Long id, Long senderId, Long recipientId, String value, String senderBalance, String recipientBalance, LocalDateTime createdAt) {
+        Transfers transfer = new Transfers();
+        transfer.setId(id);
+        transfer.setSenderId(senderId);
+        transfer.setRecipientId(recipientId);
+        transfer.setValue(new BigDecimal(value));
+        transfer.setSenderBalance(senderBalance == null ? null : new BigDecimal(senderBalance));
+        transfer.setRecipientBalance(recipientBalance == null ? null : new BigDecimal(recipientBalance));
+        transfer.setCreatedAt(createdAt);
+        transfer.setStatus(TransferStatus.EFFECTED);
+        return transfer;
+    }
+
+    private DailyBalance rollup(LocalDate day, String inflow, String outflow, Long count, String closing) {
+        DailyBalance rollup = new DailyBalance(1L, day);
+        rollup.setInflow(new BigDecimal(inflow));
+        rollup.setOutflow(new BigDecimal(outflow));
+        rollup.setTransferCount(count);
+        rollup.setClosingBalance(new BigDecimal(closing));
+        return rollup;
+    }
+}
@@ -0,0 +1,168 @@
+package com.bruno.api.brbank.services.impl;
+
+import com.bruno.api.brbank.entities.IdempotencyKey;
+import com.bruno.api.brbank.exceptions.IdempotencyConflictException;
+import com.bruno.api.brbank.repositories.IdempotencyKeyRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+class IdempotencyServiceImplTest {
+
+    public static final String PRINCIPAL = "bruno@gmail.com";
+    public static final String KEY = "transfer-1";
+    public static final String REQUEST = "1:2:10";
+
+    @Mock
+    private IdempotencyKeyRepository repository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private IdempotencyServiceImpl service;
+    private final AtomicInteger executions = new AtomicInteger();
+    private final Supplier<ResponseEntity<String>> action = () -> {
+        executions.incrementAndGet();
+        return ResponseEntity.status(HttpStatus.OK).body("Transfer completed successfully");
+    };
+
+    @BeforeEach
+    void setUp(){
+        MockitoAnnotations.openMocks(this);
+        Mockito.when(transactionManager.getTransaction(Mockito.any())).thenReturn(new SimpleTransactionStatus());
+        Mockito.when(repository.complete(Mockito.anyString(), Mockito.any(), Mockito.anyInt(), Mockito.any())).thenReturn(1);
+        service = new IdempotencyServiceImpl(repository, new TransactionTemplate(transactionManager), 100, Duration.ofHours(24), Duration.ofSeconds(60));
+    }
+
+    @Test
+    void whenKeyIsReplayedThenStoredResponseIsReturnedWithoutRunningTheActionAgain() {
+        ResponseEntity<String> first = service.execute(PRINCIPAL, KEY, REQUEST, action);
+        ResponseEntity<String> second = service.execute(PRINCIPAL, KEY, REQUEST, action);
+
+        Assertions.assertEquals(1, executions.get());
+        Assertions.assertEquals(HttpStatus.OK, second.getStatusCode());
+        Assertions.assertEquals(first.getBody(), second.getBody());
+        Mockito.verify(repository, Mockito.times(1)).saveAndFlush(Mockito.any());
+    }
+
+    @Test
+    void whenCompletedKeyIsFoundInTheDatabaseThenItIsReplayed() throws Exception {
+        IdempotencyKey stored = reservation();
+        stored.setResponseStatus(200);
+        stored.setResponseBody("Transfer completed successfully");
+        Mockito.when(repository.saveAndFlush(Mockito.any())).thenThrow(new DataIntegrityViolationException("duplicate"));
+        Mockito.when(repository.findById(Mockito.anyString())).thenReturn(Optional.of(stored));
+
+        ResponseEntity<String> response = service.execute(PRINCIPAL, KEY, REQUEST, action);
+
+        Assertions.assertEquals(0, executions.get());
+        Assertions.assertEquals("Transfer completed successfully", response.getBody());
+    }
+
+    @Test
+    void whenKeyIsReusedWithAnotherRequestThenReturnConflict() {
+        service.execute(PRINCIPAL, KEY, REQUEST, action);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> service.execute(PRINCIPAL, KEY, "1:2:20", action));
+        Assertions.assertEquals(1, executions.get());
+    }
+
+    @Test
+    void whenKeyIsStillInProgressThenReturnConflict() throws Exception {
+        IdempotencyKey stored = reservation();
+        Mockito.when(repository.saveAndFlush(Mockito.any())).thenThrow(new DataIntegrityViolationException("duplicate"));
+        Mockito.when(repository.findById(Mockito.anyString())).thenReturn(Optional.of(stored));
+        Mockito.when(repository.reclaim(Mockito.anyString(), Mockito.anyString(), Mockito.any(), Mockito.any())).thenReturn(0);
+
+        Assertions.assertThrows(IdempotencyConflictException.class, () -> service.execute(PRINCIPAL, KEY, REQUEST, action));
+        Assertions.assertEquals(0, executions.get());
+    }
+
+    @Test
+    void whenReservationIsStaleThenItIsReclaimed() throws Exception {
+        IdempotencyKey stored = reservation();
+        Mockito.when(repository.saveAndFlush(Mockito.any())).thenThrow(new DataIntegrityViolationException("duplicate"));
+        Mockito.when(repository.findById(Mockito.anyString())).thenReturn(Optional.of(stored));
+        Mockito.when(repository.reclaim(Mockito.anyString(), Mockito.anyString(), Mockito.any(), Mockito.any())).thenReturn(1);
+
+        ResponseEntity<String> response = service.execute(PRINCIPAL, KEY, REQUEST, action);
+
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assertions.assertEquals(1, executions.get());
+        Mockito.verify(repository).complete(Mockito.anyString(), Mockito.any(), Mockito.eq(200), Mockito.any());
+    }
+
+    @Test
+    void whenSameKeyComesFromAnotherPrincipalThenBothRequestsRun() {
+        service.execute(PRINCIPAL, KEY, REQUEST, action);
+        service.execute("maria@gmail.com", KEY, REQUEST, action);
+
+        ArgumentCaptor<IdempotencyKey> captor = ArgumentCaptor.forClass(IdempotencyKey.class);
+        Mockito.verify(repository, Mockito.times(2)).saveAndFlush(captor.capture());
+        List<IdempotencyKey> reservations = captor.getAllValues();
+        Assertions.assertNotEquals(reservations.get(0).getKey(), reservations.get(1).getKey());
+        Assertions.assertEquals(2, executions.get());
+    }
+
+    @Test
+    void whenActionFailsThenReservationIsReleased() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> service.execute(PRINCIPAL, KEY, REQUEST, () -> {
+            throw new IllegalArgumentException("Not enough balance for the transfer");
+        }));
+
+        Mockito.verify(repository).release(Mockito.anyString(), Mockito.any());
+        Mockito.verify(repository, Mockito.never()).complete(Mockito.anyString(), Mockito.any(), Mockito.anyInt(), Mockito.any());
+    }
+
+    @Test
+    void whenNonTransactionalResponseCannotBeRecordedThenKeyIsNeverReleasedOrReclaimed() throws Exception {
+        Mockito.when(repository.complete(Mockito.anyString(), Mockito.any(), Mockito.anyInt(), Mockito.any()))
+                .thenThrow(new QueryTimeoutException("timeout"));
+
+        Assertions.assertThrows(QueryTimeoutException.class, () -> service.executeNonTransactional(PRINCIPAL, KEY, REQUEST, action));
+
+        Mockito.verify(repository, Mockito.never()).release(Mockito.anyString(), Mockito.any());
+        Mockito.when(repository.saveAndFlush(Mockito.any())).thenThrow(new DataIntegrityViolationException("duplicate"));
+        Mockito.when(repository.findById(Mockito.anyString())).thenReturn(Optional.of(reservation()));
+        Assertions.assertThrows(IdempotencyConflictException.class, () -> service.executeNonTransactional(PRINCIPAL, KEY, REQUEST, action));
+        Mockito.verify(repository, Mockito.never()).reclaim(Mockito.anyString(), Mockito.anyString(), Mockito.any(), Mockito.any());
+        Assertions.assertEquals(1, executions.get());
+    }
+
+    @Test
+    void whenNonTransactionalActionIsRejectedThenReservationIsReleased() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> service.executeNonTransactional(PRINCIPAL, KEY, REQUEST, () -> {
+            throw new IllegalArgumentException("Not enough balance for the transfer");
+        }));
+        Assertions.assertThrows(IllegalStateException.class, () -> service.executeNonTransactional(PRINCIPAL, "transfer-2", REQUEST, () -> {
+            throw new IllegalStateException("Could not sync the journal");
+        }));
+
+        Mockito.verify(repository, Mockito.times(1)).release(Mockito.anyString(), Mockito.any());
+    }
+
+    private IdempotencyKey reservation() throws NoSuchAlgorithmException {
+        byte[] fingerprint = MessageDigest.getInstance("SHA-256").digest(REQUEST.getBytes(StandardCharsets.UTF_8));
+        return new IdempotencyKey("stored", HexFormat.of().formatHex(fingerprint));
+    }
+}
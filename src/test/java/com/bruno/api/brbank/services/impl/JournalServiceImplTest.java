@@ -0,0 +1,111 @@
+package com.bruno.api.brbank.services.impl;
+
+import com.bruno.api.brbank.entities.Transfers;
+import com.bruno.api.brbank.entities.User;
+import com.bruno.api.brbank.enums.TransferMode;
+import com.bruno.api.brbank.enums.UserRole;
+import com.bruno.api.brbank.services.JournalService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+class JournalServiceImplTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void whenRecoverThenRebuildBalancesFromSnapshotAndJournalTail() {
+        JournalServiceImpl journal = newJournal();
+        journal.recover(0);
+        journal.append(transfer(1L, 2L, "10.00", "90.00", "10.00"), user(1L, UserRole.COMMON_USER), user(2L, UserRole.COMMON_USER));
+        journal.snapshot(journal.lastSequence(), List.of(user(1L, UserRole.COMMON_USER, "90.00"), user(2L, UserRole.MERCHANT, "10.00")), 0);
+        journal.append(transfer(2L, 3L, "2.50", "7.50", "2.50"), user(2L, UserRole.MERCHANT), user(3L, UserRole.COMMON_USER));
+        journal.appendEviction(1L);
+
+        JournalService.Recovery recovery = newJournal().recover(1);
+        Assertions.assertEquals(3, recovery.lastSequence());
+        Assertions.assertEquals(Map.of(2L, new BigDecimal("7.50"), 3L, new BigDecimal("2.50")), recovery.balances());
+        Assertions.assertEquals(UserRole.MERCHANT, recovery.accounts().get(2L).getRole());
+        Assertions.assertEquals("User 2", recovery.accounts().get(2L).getName());
+        Assertions.assertEquals(UserRole.COMMON_USER, recovery.accounts().get(3L).getRole());
+        Assertions.assertEquals(1, recovery.transfers().size());
+        Assertions.assertEquals(new BigDecimal("2.50"), recovery.transfers().get(0).getValue());
+        Assertions.assertEquals("User 2", recovery.transfers().get(0).getSenderName());
+        Assertions.assertEquals(2L, recovery.transfers().get(0).getJournalSequence());
+    }
+
+    @Test
+    void whenSegmentIsFullThenRollToANewOne() {
+        JournalServiceImpl journal = new JournalServiceImpl(TransferMode.LEDGER, true, directory, DataSize.ofBytes(256), false);
+        journal.recover(0);
+        for (int i = 0; i < 10; i++) {
+            journal.append(transfer(1L, 2L, "1.00", String.valueOf(100 - i - 1), String.valueOf(i + 1)), user(1L, UserRole.COMMON_USER), user(2L, UserRole.COMMON_USER));
+        }
+
+        JournalService.Recovery recovery = newJournal().recover(0);
+        Assertions.assertEquals(10, recovery.lastSequence());
+        Assertions.assertEquals(10, recovery.transfers().size());
+        Assertions.assertEquals(BigDecimal.valueOf(90), recovery.balances().get(1L));
+    }
+
+    @Test
+    void whenAppendsAreAwaitedConcurrentlyThenEveryRecordIsDurable() throws Exception {
+        JournalServiceImpl journal = new JournalServiceImpl(TransferMode.LEDGER, true, directory, DataSize.ofKilobytes(4), true);
+        journal.recover(0);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int writer = 0; writer < 8; writer++) {
+            writers.add(executor.submit(() -> {
+                for (int i = 0; i < 50; i++) {
+                    journal.awaitDurable(journal.append(transfer(1L, 2L, "1.00", "1", "1"), user(1L, UserRole.COMMON_USER), user(2L, UserRole.COMMON_USER)));
+                }
+            }));
+        }
+        for (Future<?> writer : writers) {
+            writer.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        JournalService.Recovery recovery = newJournal().recover(0);
+        Assertions.assertEquals(400, recovery.lastSequence());
+        Assertions.assertEquals(400, recovery.transfers().size());
+    }
+
+    private JournalServiceImpl newJournal() {
+        return new JournalServiceImpl(TransferMode.LEDGER, true, directory, DataSize.ofKilobytes(64), false);
+    }
+
+    private User user(Long id, UserRole role) {
+        return user(id, role, "0");
+    }
+
+    private User user(Long id, UserRole role, String balance) {
+        return new User(id, "User " + id, null, null, null, role, new BigDecimal(balance));
+    }
+
+    private Transfers transfer(Long senderId, Long recipientId, String value, String senderBalance, String recipientBalance) {
+        Transfers transfer = new Transfers();
+        transfer.setSenderId(senderId);
+        transfer.setSenderName("User " + senderId);
+        transfer.setRecipientId(recipientId);
+        transfer.setRecipientName("User " + recipientId);
+        transfer.setValue(new BigDecimal(value));
+        transfer.setSenderBalance(new BigDecimal(senderBalance));
+        transfer.setRecipientBalance(new BigDecimal(recipientBalance));
+        transfer.setCreatedAt(LocalDateTime.now());
+        return transfer;
+    }
+}
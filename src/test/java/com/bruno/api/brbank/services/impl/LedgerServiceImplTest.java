@@ -0,0 +1,186 @@
+package com.bruno.api.brbank.services.impl;
+
+import com.bruno.api.brbank.config.ReplicaLagGuard;
+import com.bruno.api.brbank.dtos.TransferRequest;
+import com.bruno.api.brbank.entities.Transfers;
+import com.bruno.api.brbank.entities.User;
+import com.bruno.api.brbank.enums.TransferMode;
+import com.bruno.api.brbank.enums.UserRole;
+import com.bruno.api.brbank.repositories.JournalCheckpointRepository;
+import com.bruno.api.brbank.repositories.TransferRepository;
+import com.bruno.api.brbank.repositories.UserRepository;
+import com.bruno.api.brbank.services.DailyBalanceService;
+import com.bruno.api.brbank.services.JournalService;
+import com.bruno.api.brbank.services.TransferService;
+import com.bruno.api.brbank.validation.ValidationRules;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class LedgerServiceImplTest {
+
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private TransferRepository transferRepository;
+    @Mock
+    private TransferService transferService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private JournalService journalService;
+    @Mock
+    private JournalCheckpointRepository checkpointRepository;
+    @Mock
+    private DailyBalanceService dailyBalanceService;
+
+    private final Map<Long, BigDecimal> database = new ConcurrentHashMap<>();
+    private final AtomicInteger savedTransfers = new AtomicInteger();
+
+    @BeforeEach
+    void setUp(){
+        MockitoAnnotations.openMocks(this);
+        for (long id = 1; id <= 4; id++) {
+            database.put(id, BigDecimal.valueOf(100));
+        }
+        Mockito.when(userRepository.findFreshById(Mockito.anyLong())).thenAnswer(invocation -> {
+            Long id = invocation.getArgument(0);
+            BigDecimal balance = database.get(id);
+            return balance == null ? Optional.empty()
+                    : Optional.of(new User(id, "User " + id, null, id + "@gmail.com", "12345", UserRole.COMMON_USER, balance));
+        });
+        Mockito.doAnswer(invocation -> {
+            database.putAll(invocation.getArgument(0));
+            return null;
+        }).when(userRepository).updateBalances(Mockito.anyMap());
+        Mockito.when(transferRepository.saveAll(Mockito.anyList())).thenAnswer(invocation -> {
+            savedTransfers.addAndGet(invocation.<List<Transfers>>getArgument(0).size());
+            return invocation.getArgument(0);
+        });
+    }
+
+    @Test
+    void whenTransfersRunConcurrentlyThenTheFlushedBalancesAddUp() throws Exception {
+        LedgerServiceImpl ledger = ledger(8, 100000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int worker = 0; worker < 8; worker++) {
+            workers.add(executor.submit(() -> {
+                for (int i = 0; i < 500; i++) {
+                    long sender = ThreadLocalRandom.current().nextLong(1, 5);
+                    long recipient = sender % 4 + 1;
+                    ledger.transfer(request(sender, recipient, BigDecimal.ONE));
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        ledger.flush();
+
+        Assertions.assertEquals(4000, savedTransfers.get());
+        Assertions.assertEquals(0, BigDecimal.valueOf(400).compareTo(database.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add)));
+    }
+
+    @Test
+    void whenAccountIsHeldExclusivelyThenItsBalanceIsWrittenAndTransfersWaitForTheAction() throws Exception {
+        LedgerServiceImpl ledger = ledger(4, 100000);
+        ledger.transfer(request(1L, 2L, BigDecimal.TEN));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        Future<?> waiting = ledger.exclusive(1L, () -> {
+            Assertions.assertEquals(0, BigDecimal.valueOf(90).compareTo(database.get(1L)));
+            Future<?> transfer = executor.submit(() -> ledger.transfer(request(1L, 3L, BigDecimal.valueOf(5))));
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            Assertions.assertFalse(transfer.isDone());
+            database.put(1L, BigDecimal.valueOf(500));
+            return transfer;
+        });
+        waiting.get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+        ledger.flush();
+
+        Assertions.assertEquals(0, BigDecimal.valueOf(495).compareTo(database.get(1L)));
+        Assertions.assertEquals(0, BigDecimal.valueOf(110).compareTo(database.get(2L)));
+        Assertions.assertEquals(0, BigDecimal.valueOf(105).compareTo(database.get(3L)));
+    }
+
+    @Test
+    void whenAccountsExceedTheLimitThenOnlyFlushedAccountsAreDropped() {
+        LedgerServiceImpl ledger = ledger(1, 2);
+        ledger.transfer(request(1L, 2L, BigDecimal.TEN));
+        ledger.transfer(request(3L, 4L, BigDecimal.ONE));
+        ledger.flush();
+        ledger.transfer(request(3L, 4L, BigDecimal.ONE));
+        ledger.transfer(request(1L, 2L, BigDecimal.TEN));
+        ledger.flush();
+
+        Mockito.verify(userRepository, Mockito.times(2)).findFreshById(1L);
+        Assertions.assertEquals(0, BigDecimal.valueOf(80).compareTo(database.get(1L)));
+        Assertions.assertEquals(0, BigDecimal.valueOf(120).compareTo(database.get(2L)));
+        Assertions.assertEquals(0, BigDecimal.valueOf(98).compareTo(database.get(3L)));
+        Assertions.assertEquals(0, BigDecimal.valueOf(102).compareTo(database.get(4L)));
+    }
+
+    @Test
+    void whenRecoveringThenAccountsAreRestoredFromTheJournalWithoutReadingUsers() {
+        User merchant = new User(1L, "User 1", null, null, null, UserRole.MERCHANT, BigDecimal.valueOf(70));
+        User common = new User(2L, "User 2", null, null, null, UserRole.COMMON_USER, BigDecimal.valueOf(130));
+        Mockito.when(journalService.isEnabled()).thenReturn(true);
+        Mockito.when(journalService.recover(Mockito.anyLong()))
+                .thenReturn(new JournalService.Recovery(5, Map.of(1L, merchant, 2L, common), List.of()));
+        Mockito.doAnswer(invocation -> {
+            ValidationRules.TRANSFER.validate(invocation.getArgument(0), invocation.getArgument(1), false);
+            return null;
+        }).when(transferService).validTransferRequest(Mockito.any(), Mockito.any());
+        LedgerServiceImpl ledger = ledger(4, 100000);
+
+        ledger.recover();
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ledger.transfer(request(1L, 2L, BigDecimal.TEN)));
+        ledger.transfer(request(2L, 1L, BigDecimal.TEN));
+        ledger.flush();
+        Mockito.verify(userRepository, Mockito.never()).findFreshById(Mockito.anyLong());
+        Assertions.assertEquals(0, BigDecimal.valueOf(80).compareTo(database.get(1L)));
+        Assertions.assertEquals(0, BigDecimal.valueOf(120).compareTo(database.get(2L)));
+        Mockito.verify(journalService).snapshot(Mockito.eq(0L), Mockito.argThat(accounts -> accounts.size() == 2), Mockito.eq(5L));
+    }
+
+    private LedgerServiceImpl ledger(int shards, int maxAccounts) {
+        return new LedgerServiceImpl(userRepository, transferRepository, transferService, new TransactionTemplate(transactionManager),
+                journalService, checkpointRepository, dailyBalanceService, new ReplicaLagGuard(false, Duration.ofSeconds(2), 1000),
+                TransferMode.LEDGER, shards, 500, maxAccounts);
+    }
+
+    private TransferRequest request(Long sender, Long recipient, BigDecimal value) {
+        TransferRequest request = new TransferRequest();
+        request.setSenderId(sender);
+        request.setRecipient(recipient);
+        request.setValue(value);
+        return request;
+    }
+}
@@ -0,0 +1,44 @@
+package com.bruno.api.brbank.services.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+class PasswordHashingServiceImplTest {
+
+    private final Set<String> threads = ConcurrentHashMap.newKeySet();
+    private final PasswordHashingServiceImpl service = new PasswordHashingServiceImpl(new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            threads.add(Thread.currentThread().getName());
+            return "hash:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encodedPassword.equals(encode(rawPassword));
+        }
+    }, 2, 2, Duration.ofSeconds(5));
+
+    @AfterEach
+    void tearDown(){
+        service.shutdown();
+    }
+
+    @Test
+    void whenBatchIsLargerThanTheQueueThenEveryPasswordIsHashedInOrderOnThePool() {
+        List<String> passwords = IntStream.range(0, 50).mapToObj(String::valueOf).toList();
+
+        List<String> encoded = service.encodeAll(passwords);
+
+        Assertions.assertEquals(passwords.stream().map(password -> "hash:" + password).toList(), encoded);
+        Assertions.assertTrue(threads.stream().allMatch(name -> name.startsWith("password-hashing-")));
+    }
+}
@@ -0,0 +1,90 @@
+package com.bruno.api.brbank.services.impl;
+
+import com.bruno.api.brbank.entities.Transfers;
+import com.bruno.api.brbank.enums.TransferStatus;
+import com.bruno.api.brbank.repositories.TransferRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+class TransferExportServiceImplTest {
+
+    @Mock
+    private TransferRepository transferRepository;
+
+    private TransferExportServiceImpl service;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp(){
+        MockitoAnnotations.openMocks(this);
+        service = new TransferExportServiceImpl(transferRepository, objectMapper, 1024, 366);
+        Mockito.doAnswer(invocation -> {
+            Consumer<Transfers> handler = invocation.getArgument(3);
+            handler.accept(transfer(1L, "Bruno Silva", "Wallace, \"Jr\"", "10.50"));
+            handler.accept(transfer(2L, "Wallace Silva", "Bruno Silva", "0.01"));
+            return null;
+        }).when(transferRepository).scanTransfers(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void whenExportingNdjsonThenWriteOneObjectPerLine() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        service.export(1L, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31), UserImportServiceImpl.NDJSON, output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n", -1);
+        Assertions.assertEquals(3, lines.length);
+        Assertions.assertEquals("", lines[2]);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        Assertions.assertEquals(1L, first.get("id").asLong());
+        Assertions.assertEquals("Wallace, \"Jr\"", first.get("recipientName").asText());
+        Assertions.assertTrue(lines[0].contains("\"value\":10.50"));
+        Assertions.assertEquals("EFFECTED", first.get("status").asText());
+        Mockito.verify(transferRepository).scanTransfers(Mockito.eq(1L), Mockito.eq(LocalDateTime.of(2024, 3, 1, 0, 0)),
+                Mockito.eq(LocalDateTime.of(2024, 4, 1, 0, 0)), Mockito.any());
+    }
+
+    @Test
+    void whenExportingCsvThenQuoteValuesWithSeparators() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        service.export(null, null, null, UserImportServiceImpl.CSV, output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        Assertions.assertEquals(3, lines.length);
+        Assertions.assertEquals("id,senderId,senderName,recipientId,recipientName,value,createdAt,status,message", lines[0]);
+        Assertions.assertEquals("1,1,Bruno Silva,2,\"Wallace, \"\"Jr\"\"\",10.50,2024-03-10T09:30,EFFECTED,", lines[1]);
+    }
+
+    @Test
+    void whenFormatIsUnknownThenThrowIllegalArgumentException() {
+        IllegalArgumentException exception = Assertions.assertThrows(IllegalArgumentException.class, () -> service.contentType("xml"));
+        Assertions.assertEquals("The export format must be ndjson or csv", exception.getMessage());
+    }
+
+    private Transfers transfer(Long id, String senderName, String recipientName, String value) {
+        Transfers transfer = new Transfers();
+        transfer.setId(id);
+        transfer.setSenderId(1L);
+        transfer.setSenderName(senderName);
+        transfer.setRecipientId(2L);
+        transfer.setRecipientName(recipientName);
+        transfer.setValue(new BigDecimal(value));
+        transfer.setCreatedAt(LocalDateTime.of(2024, 3, 10, 9, 30));
+        transfer.setStatus(TransferStatus.EFFECTED);
+        return transfer;
+    }
+}
@@ -0,0 +1,230 @@
+package com.bruno.api.brbank.services.impl;
+
+import com.bruno.api.brbank.config.ReplicaLagGuard;
+import com.bruno.api.brbank.config.StageMetrics;
+import com.bruno.api.brbank.dtos.CursorPageDTO;
+import com.bruno.api.brbank.dtos.TransferDTO;
+import com.bruno.api.brbank.dtos.TransferRequest;
+import com.bruno.api.brbank.dtos.TransferResultDTO;
+import com.bruno.api.brbank.entities.Transfers;
+import com.bruno.api.brbank.entities.User;
+import com.bruno.api.brbank.enums.TransferStatus;
+import com.bruno.api.brbank.enums.UserRole;
+import com.bruno.api.brbank.repositories.TransferRepository;
+import com.bruno.api.brbank.repositories.UserRepository;
+import com.bruno.api.brbank.services.DailyBalanceService;
+import com.bruno.api.brbank.services.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.BeanUtils;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+class TransferServiceImplTest {
+
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private TransferRepository transferRepository;
+    @Mock
+    private DailyBalanceService dailyBalanceService;
+    @Mock
+    private UserService userService;
+
+    private TransferServiceImpl service;
+
+    @BeforeEach
+    void setUp(){
+        MockitoAnnotations.openMocks(this);
+        service = new TransferServiceImpl(userRepository, transferRepository, Validation.buildDefaultValidatorFactory().getValidator(),
+                new StageMetrics(new SimpleMeterRegistry()), dailyBalanceService, new ReplicaLagGuard(false, Duration.ofSeconds(2), 1000), userService);
+        ReflectionTestUtils.setField(service, "batchMaxSize", 10);
+        ReflectionTestUtils.setField(service, "historyMaxPageSize", 100);
+    }
+
+    @Test
+    void whenCreatingTransfersThenEveryAccountIsLockedOnceInIdOrder() {
+        Mockito.when(userRepository.findByIdInOrderByIdAsc(Mockito.anyCollection()))
+                .thenReturn(List.of(user(1L, "100"), user(2L, "100"), user(3L, "100")));
+
+        service.createTransfers(List.of(request(3L, 1L, "10"), request(1L, 2L, "10"), request(2L, 3L, "10")));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Long>> captor = ArgumentCaptor.forClass(Collection.class);
+        Mockito.verify(userRepository, Mockito.times(1)).findByIdInOrderByIdAsc(captor.capture());
+        Assertions.assertEquals(Set.of(1L, 2L, 3L), Set.copyOf(captor.getValue()));
+        Mockito.verify(userRepository, Mockito.never()).findById(Mockito.any());
+    }
+
+    @Test
+    void whenBatchHasInvalidEntriesThenOnlyTheValidTransfersAreApplied() {
+        Mockito.when(userRepository.findByIdInOrderByIdAsc(Mockito.anyCollection()))
+                .thenReturn(List.of(user(1L, "100"), user(2L, "100")));
+        AtomicLong ids = new AtomicLong(100);
+        Mockito.when(transferRepository.saveAll(Mockito.anyList())).thenAnswer(invocation -> {
+            List<Transfers> transfers = invocation.getArgument(0);
+            transfers.forEach(transfer -> transfer.setId(ids.incrementAndGet()));
+            return transfers;
+        });
+
+        List<TransferResultDTO> results = service.createTransfers(Arrays.asList(
+                request(1L, 2L, "30"),
+                null,
+                request(2L, 9L, "10"),
+                request(1L, 2L, "100"),
+                request(2L, 1L, "10")));
+
+        Assertions.assertEquals(5, results.size());
+        Assertions.assertEquals(TransferStatus.EFFECTED, results.get(0).getStatus());
+        Assertions.assertEquals(101L, results.get(0).getTransferId());
+        Assertions.assertEquals("The transfer request must be indicated", results.get(1).getMessage());
+        Assertions.assertEquals("This recipient ID does not exist in our system", results.get(2).getMessage());
+        Assertions.assertEquals("Not enough balance for the transfer", results.get(3).getMessage());
+        Assertions.assertEquals(TransferStatus.EFFECTED, results.get(4).getStatus());
+        Assertions.assertEquals(102L, results.get(4).getTransferId());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<Long, BigDecimal>> balances = ArgumentCaptor.forClass(Map.class);
+        Mockito.verify(userRepository).updateBalances(balances.capture());
+        Assertions.assertEquals(new BigDecimal("80"), balances.getValue().get(1L));
+        Assertions.assertEquals(new BigDecimal("120"), balances.getValue().get(2L));
+        Mockito.verify(dailyBalanceService).record(Mockito.argThat(transfers -> transfers.size() == 2));
+    }
+
+    @Test
+    void whenTransferringThenBalancesTransferAndRollupAreWrittenTogether() {
+        User sender = user(1L, "100");
+        User recipient = user(2L, "0");
+        Mockito.when(userRepository.findByIdInOrderByIdAsc(Set.of(1L, 2L))).thenReturn(List.of(sender, recipient));
+        Mockito.when(transferRepository.save(Mockito.any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        service.transfer(request(1L, 2L, "23.39"));
+
+        Assertions.assertEquals(new BigDecimal("76.61"), sender.getBalance());
+        Assertions.assertEquals(new BigDecimal("23.39"), recipient.getBalance());
+        Mockito.verify(dailyBalanceService).record(Mockito.argThat(transfers -> transfers.size() == 1));
+        Mockito.verify(userService).save(sender);
+        Mockito.verify(userService).save(recipient);
+        Mockito.verify(userService, Mockito.never()).findById(Mockito.any());
+    }
+
+    @Test
+    void whenSenderHasNotEnoughBalanceThenNothingIsWritten() {
+        User sender = user(1L, "10");
+        User recipient = user(2L, "0");
+        Mockito.when(userRepository.findByIdInOrderByIdAsc(Set.of(1L, 2L))).thenReturn(List.of(sender, recipient));
+
+        IllegalArgumentException e = Assertions.assertThrows(IllegalArgumentException.class, () -> service.transfer(request(1L, 2L, "20")));
+
+        Assertions.assertEquals("Not enough balance for the transfer", e.getMessage());
+        Assertions.assertEquals(new BigDecimal("10"), sender.getBalance());
+        Assertions.assertEquals(new BigDecimal("0"), recipient.getBalance());
+        Mockito.verify(transferRepository, Mockito.never()).save(Mockito.any());
+        Mockito.verify(dailyBalanceService, Mockito.never()).record(Mockito.any());
+        Mockito.verify(userService, Mockito.never()).save(Mockito.any());
+    }
+
+    @Test
+    void whenPendingTransferIsSettledTwiceThenBalancesMoveOnlyOnce() {
+        Map<Long, BigDecimal> database = new HashMap<>(Map.of(1L, new BigDecimal("100"), 2L, new BigDecimal("0")));
+        Transfers pending = new Transfers();
+        pending.setId(7L);
+        pending.setSenderId(1L);
+        pending.setRecipientId(2L);
+        pending.setValue(new BigDecimal("30"));
+        pending.setStatus(TransferStatus.PENDING);
+        Mockito.when(transferRepository.findAllById(List.of(7L))).thenAnswer(invocation -> {
+            Transfers stale = new Transfers();
+            BeanUtils.copyProperties(pending, stale);
+            stale.setStatus(TransferStatus.PENDING);
+            return List.of(stale);
+        });
+        Mockito.when(transferRepository.findPendingByIdIn(List.of(7L)))
+                .thenAnswer(invocation -> pending.getStatus() == TransferStatus.PENDING ? List.of(pending) : List.of());
+        Mockito.when(userRepository.findByIdInOrderByIdAsc(Mockito.anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().sorted().map(id -> user(id, database.get(id).toPlainString())).toList();
+        });
+        Mockito.doAnswer(invocation -> {
+            database.putAll(invocation.getArgument(0));
+            return null;
+        }).when(userRepository).updateBalances(Mockito.anyMap());
+
+        service.settlePending(List.of(7L));
+        service.settlePending(List.of(7L));
+
+        Assertions.assertEquals(TransferStatus.EFFECTED, pending.getStatus());
+        Assertions.assertEquals(new BigDecimal("70"), database.get(1L));
+        Assertions.assertEquals(new BigDecimal("30"), database.get(2L));
+    }
+
+    @Test
+    void whenReadingHistoryThenSentAndReceivedAreMergedNewestFirst() {
+        Mockito.when(transferRepository.findSentBefore(Mockito.eq(1L), Mockito.eq(Long.MAX_VALUE), Mockito.any(Pageable.class)))
+                .thenReturn(transfers(9L, 6L, 2L));
+        Mockito.when(transferRepository.findReceivedBefore(Mockito.eq(1L), Mockito.eq(Long.MAX_VALUE), Mockito.any(Pageable.class)))
+                .thenReturn(transfers(8L, 7L, 3L));
+
+        CursorPageDTO<TransferDTO> page = service.findHistory(1L, null, 4);
+
+        Assertions.assertEquals(List.of(9L, 8L, 7L, 6L), page.getContent().stream().map(TransferDTO::getId).toList());
+        Assertions.assertEquals(6L, page.getNextCursor());
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        Mockito.verify(transferRepository).findSentBefore(Mockito.eq(1L), Mockito.eq(Long.MAX_VALUE), pageable.capture());
+        Assertions.assertEquals(5, pageable.getValue().getPageSize());
+    }
+
+    @Test
+    void whenHistoryIsExhaustedThenThereIsNoNextCursor() {
+        Mockito.when(transferRepository.findSentBefore(Mockito.eq(1L), Mockito.eq(6L), Mockito.any(Pageable.class)))
+                .thenReturn(transfers(2L));
+        Mockito.when(transferRepository.findReceivedBefore(Mockito.eq(1L), Mockito.eq(6L), Mockito.any(Pageable.class)))
+                .thenReturn(transfers(3L));
+
+        CursorPageDTO<TransferDTO> page = service.findHistory(1L, 6L, 4);
+
+        Assertions.assertEquals(List.of(3L, 2L), page.getContent().stream().map(TransferDTO::getId).toList());
+        Assertions.assertNull(page.getNextCursor());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> service.findHistory(1L, null, 101));
+    }
+
+    private List<TransferDTO> transfers(Long... ids) {
+        List<TransferDTO> transfers = new ArrayList<>();
+        for (Long id : ids) {
+            TransferDTO transfer = new TransferDTO();
+            transfer.setId(id);
+            transfers.add(transfer);
+        }
+        return transfers;
+    }
+
+    private User user(Long id, String balance) {
+        return new User(id, "User " + id, null, id + "@gmail.com", "12345", UserRole.COMMON_USER, new BigDecimal(balance));
+    }
+
+    private TransferRequest request(Long sender, Long recipient, String value) {
+        TransferRequest request = new TransferRequest();
+        request.setSenderId(sender);
+        request.setRecipient(recipient);
+        request.setValue(new BigDecimal(value));
+        return request;
+    }
+}
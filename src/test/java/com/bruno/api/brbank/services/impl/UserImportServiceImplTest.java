@@ -0,0 +1,140 @@
+package com.bruno.api.brbank.services.impl;
+
+import com.bruno.api.brbank.config.ReplicaLagGuard;
+import com.bruno.api.brbank.dtos.ImportResultDTO;
+import com.bruno.api.brbank.entities.User;
+import com.bruno.api.brbank.repositories.UserRepository;
+import com.bruno.api.brbank.services.PasswordHashingService;
+import com.bruno.api.brbank.services.UserIndexService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+class UserImportServiceImplTest {
+
+    @Mock
+    private UserRepository repository;
+    @Mock
+    private PasswordHashingService passwordHashingService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private UserIndexService userIndex;
+
+    private UserImportServiceImpl service;
+
+    @BeforeEach
+    void setUp(){
+        MockitoAnnotations.openMocks(this);
+        Mockito.when(passwordHashingService.encodeAll(Mockito.anyList()))
+                .thenAnswer(invocation -> invocation.<List<String>>getArgument(0).stream().map(password -> "hash:" + password).toList());
+        service = new UserImportServiceImpl(repository, new UserServiceImpl(repository, passwordHashingService, userIndex, new ReplicaLagGuard(false, Duration.ofSeconds(2), 1000), new ConcurrentMapCacheManager()), userIndex, passwordHashingService,
+                Validation.buildDefaultValidatorFactory().getValidator(), new TransactionTemplate(transactionManager), new ObjectMapper(), 2, 10);
+    }
+
+    @Test
+    void whenImportCsvThenSaveValidLinesAndReportTheOthers() {
+        Mockito.when(repository.findEmailsIn(Mockito.any())).thenReturn(List.of("taken@gmail.com"));
+        String csv = """
+                name,cpf,email,password,role,balance
+                Bruno Silva,13711695000,bruno@gmail.com,12345,common_user,10.50
+                Wallace Silva,45597409093,taken@gmail.com,1234,COMMON_USER,
+                Ana Souza,45597409093,"ana@gmail.com",4321,MERCHANT,
+                bruno,13711695000,other@gmail.com,1,COMMON_USER,
+                """;
+
+        ImportResultDTO result = service.importUsers(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), UserImportServiceImpl.CSV);
+
+        Assertions.assertEquals(2, result.getImported());
+        Assertions.assertEquals(2, result.getFailed());
+        Assertions.assertEquals(List.of(3L, 5L), result.getErrors().stream().map(error -> error.getLine()).toList());
+        ArgumentCaptor<List<User>> saved = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(repository, Mockito.times(2)).saveAll(saved.capture());
+        User first = saved.getAllValues().get(0).get(0);
+        Assertions.assertEquals("hash:12345", first.getPassword());
+        Assertions.assertEquals(new BigDecimal("10.50"), first.getBalance());
+        Assertions.assertEquals("ana@gmail.com", saved.getAllValues().get(1).get(0).getEmail());
+    }
+
+    @Test
+    void whenImportNdjsonWithDuplicatedCpfThenReportTheSecondLine() {
+        String ndjson = """
+                {"name":"Bruno Silva","cpf":"13711695000","email":"bruno@gmail.com","password":"12345","role":"COMMON_USER"}
+                {"name":"Bruno Souza","cpf":"13711695000","email":"souza@gmail.com","password":"12345","role":"COMMON_USER"}
+                not json
+                """;
+
+        ImportResultDTO result = service.importUsers(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), UserImportServiceImpl.NDJSON);
+
+        Assertions.assertEquals(1, result.getImported());
+        Assertions.assertEquals(2, result.getFailed());
+        Assertions.assertEquals("This email or CPF already has an associated record", result.getErrors().get(0).getMessage());
+        Assertions.assertEquals(3L, result.getErrors().get(1).getLine());
+    }
+
+    @Test
+    void whenBatchHitsAConstraintThenRetryEachUserAsANewRow() {
+        Mockito.when(repository.saveAll(Mockito.anyList())).thenThrow(new DataIntegrityViolationException("duplicate"));
+        Mockito.when(repository.save(Mockito.any(User.class))).thenAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            if("souza@gmail.com".equals(user.getEmail())){
+                throw new DataIntegrityViolationException("duplicate");
+            }
+            User saved = new User(7L, user.getName(), user.getCpf(), user.getEmail(), user.getPassword(), user.getRole(), user.getBalance());
+            saved.setVersion(0L);
+            return saved;
+        });
+        String ndjson = """
+                {"name":"Bruno Silva","cpf":"13711695000","email":"bruno@gmail.com","password":"12345","role":"COMMON_USER"}
+                {"name":"Bruno Souza","cpf":"45597409093","email":"souza@gmail.com","password":"12345","role":"COMMON_USER"}
+                """;
+
+        ImportResultDTO result = service.importUsers(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), UserImportServiceImpl.NDJSON);
+
+        Assertions.assertEquals(1, result.getImported());
+        Assertions.assertEquals(1, result.getFailed());
+        Assertions.assertEquals(2L, result.getErrors().get(0).getLine());
+        ArgumentCaptor<User> retried = ArgumentCaptor.forClass(User.class);
+        Mockito.verify(repository, Mockito.times(2)).save(retried.capture());
+        Assertions.assertTrue(retried.getAllValues().stream().allMatch(user -> user.getId() == null && user.getVersion() == null));
+        Assertions.assertEquals("hash:12345", retried.getAllValues().get(0).getPassword());
+        Mockito.verify(userIndex).put(Mockito.argThat(user -> Long.valueOf(7L).equals(user.getId())));
+    }
+
+    @Test
+    void whenKeysAreFormattedThenTheyAreStoredAndCheckedNormalised() {
+        Mockito.when(repository.findCpfsIn(Mockito.any())).thenReturn(List.of("45597409093"));
+        String csv = """
+                name,cpf,email,password,role
+                Bruno Silva,137.116.950-00,Bruno@Gmail.com,12345,COMMON_USER
+                Wallace Silva,455.974.090-93,wallace@gmail.com,1234,COMMON_USER
+                Bruno Souza,13711695000,souza@gmail.com,1234,COMMON_USER
+                """;
+
+        ImportResultDTO result = service.importUsers(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), UserImportServiceImpl.CSV);
+
+        Assertions.assertEquals(1, result.getImported());
+        Assertions.assertEquals(List.of(3L, 4L), result.getErrors().stream().map(error -> error.getLine()).toList());
+        Mockito.verify(repository).findCpfsIn(List.of("13711695000", "45597409093"));
+        ArgumentCaptor<List<User>> saved = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(repository).saveAll(saved.capture());
+        Assertions.assertEquals("13711695000", saved.getValue().get(0).getCpf());
+        Assertions.assertEquals("bruno@gmail.com", saved.getValue().get(0).getEmail());
+    }
+}
@@ -0,0 +1,49 @@
+package com.bruno.api.brbank.services.impl;
+
+import com.bruno.api.brbank.entities.User;
+import com.bruno.api.brbank.enums.UserRole;
+import com.bruno.api.brbank.repositories.UserRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+class UserIndexServiceImplTest {
+
+    @Mock
+    private UserRepository repository;
+
+    private UserIndexServiceImpl index;
+    private User user;
+
+    @BeforeEach
+    void setUp(){
+        MockitoAnnotations.openMocks(this);
+        index = new UserIndexServiceImpl(repository, 1000, 0.01, 1000);
+        user = new User(1L, "Bruno Silva", "137.116.950-00", "Bruno@Gmail.com", "12345", UserRole.COMMON_USER, BigDecimal.valueOf(100));
+    }
+
+    @Test
+    void whenKeyWasNeverIndexedThenAnswerWithoutQuerying() {
+        index.put(user);
+        Assertions.assertNull(index.findIdByEmail("wallace@gmail.com"));
+        Assertions.assertEquals(1L, index.findIdByCpf("13711695000"));
+        Assertions.assertEquals(1L, index.findIdByEmail(" bruno@gmail.com"));
+        Mockito.verifyNoInteractions(repository);
+    }
+
+    @Test
+    void whenKeyWasRemovedThenFallBackToTheDatabase() {
+        index.put(user);
+        index.remove(user);
+        Mockito.when(repository.findIdByCpf("13711695000")).thenReturn(Optional.empty());
+        Assertions.assertNull(index.findIdByCpf("137.116.950-00"));
+        Assertions.assertNull(index.findIdByCpf("137.116.950-00"));
+        Mockito.verify(repository, Mockito.times(1)).findIdByCpf("13711695000");
+    }
+}
@@ -1,9 +1,14 @@
 package com.bruno.api.brbank.services.impl;
 
+import com.bruno.api.brbank.config.CacheConfig;
+import com.bruno.api.brbank.config.ReplicaLagGuard;
 import com.bruno.api.brbank.dtos.UserDTO;
+import com.bruno.api.brbank.dtos.UserResponseDTO;
 import com.bruno.api.brbank.entities.User;
 import com.bruno.api.brbank.enums.UserRole;
 import com.bruno.api.brbank.repositories.UserRepository;
+import com.bruno.api.brbank.services.PasswordHashingService;
+import com.bruno.api.brbank.services.UserIndexService;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,10 +16,15 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,6 +42,14 @@ class UserServiceImplTest {
     private UserServiceImpl service;
     @Mock
     private UserRepository repository;
+    @Mock
+    private UserIndexService userIndex;
+    @Mock
+    private PasswordHashingService passwordHashingService;
+    @Spy
+    private ReplicaLagGuard replicaLagGuard = new ReplicaLagGuard(false, Duration.ofSeconds(2), 1000);
+    @Spy
+    private CacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.USERS, CacheConfig.PRINCIPALS);
 
     private User user;
 
@@ -58,6 +76,7 @@ class UserServiceImplTest {
     void whenSaveThenReturnError() {
 
         Mockito.when(repository.findByEmail(Mockito.anyString())).thenReturn(optionalUser);
+        Mockito.when(repository.save(Mockito.any())).thenReturn(user);
         try{
             service.save(user);
         } catch (Exception e){
@@ -102,6 +121,31 @@ class UserServiceImplTest {
         }
     }
 
+    @Test
+    void whenCacheIsNotSingleNodeThenCachedResponsesAreNotServed() {
+        cacheManager.getCache(CacheConfig.USERS).put(ID, new UserResponseDTO(ID, NAME, CPF, EMAIL, BALANCE, USER_TYPE, 2L));
+        ReflectionTestUtils.setField(service, "singleNode", true);
+        Assertions.assertTrue(service.findCachedResponse(ID).isPresent());
+        Assertions.assertTrue(service.findCachedResponse(2L).isEmpty());
+
+        ReflectionTestUtils.setField(service, "singleNode", false);
+        Assertions.assertTrue(service.findCachedResponse(ID).isEmpty());
+    }
+
+    @Test
+    void whenPasswordIsRehashedThenCachedPrincipalIsEvicted() {
+        cacheManager.getCache(CacheConfig.PRINCIPALS).put(EMAIL, user);
+        Mockito.when(repository.findByEmail(EMAIL)).thenReturn(optionalUser);
+        Mockito.when(passwordHashingService.matches(PASSWORD, PASSWORD)).thenReturn(true);
+        Mockito.when(passwordHashingService.upgradeEncoding(PASSWORD)).thenReturn(true);
+        Mockito.when(passwordHashingService.encode(PASSWORD)).thenReturn("rehashed");
+
+        service.findByEmailAndPassword(EMAIL, PASSWORD);
+
+        Mockito.verify(repository).save(Mockito.argThat(saved -> "rehashed".equals(saved.getPassword())));
+        Assertions.assertNull(cacheManager.getCache(CacheConfig.PRINCIPALS).get(EMAIL));
+    }
+
     @Test
     void deleteWithSuccess() {
         Mockito.when(repository.findById(Mockito.anyLong())).thenReturn(optionalUser);
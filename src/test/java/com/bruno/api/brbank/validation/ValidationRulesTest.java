@@ -0,0 +1,76 @@
+package com.bruno.api.brbank.validation;
+
+import com.bruno.api.brbank.dtos.TransferRequest;
+import com.bruno.api.brbank.dtos.UserDTO;
+import com.bruno.api.brbank.entities.User;
+import com.bruno.api.brbank.enums.UserRole;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ValidationRulesTest {
+
+    @Test
+    void whenUserIsValidThenReturnNoErrors() {
+        UserDTO dto = new UserDTO(null, "Bruno Silva", "13711695000", "bruno@gmail.com", "12345", BigDecimal.TEN, "COMMON_USER");
+
+        assertNull(ValidationRules.USER_SAVE.firstError(dto, null));
+        assertTrue(ValidationRules.USER_SAVE.allErrors(dto, null).isEmpty());
+    }
+
+    @Test
+    void whenCollectingAllThenReturnEveryErrorInRuleOrder() {
+        UserDTO dto = new UserDTO(null, "bruno", "13711695000", "bruno@gmail.com", "12345", new BigDecimal("-0.01"), "OTHER");
+
+        ValidationException exception = assertThrows(ValidationException.class, () -> ValidationRules.USER_SAVE.validate(dto, null, true));
+
+        assertEquals(List.of(ValidationCode.USER_ROLE_INVALID, ValidationCode.USER_NAME_INVALID, ValidationCode.USER_BALANCE_NEGATIVE),
+                exception.getErrors().stream().map(ValidationError::code).toList());
+        assertEquals("Wrong user type, the types are: MERCHANT, COMMON_USER or ADMIN", exception.getMessage());
+    }
+
+    @Test
+    void whenFailFastThenReturnOnlyTheFirstError() {
+        UserDTO dto = new UserDTO(null, "bruno", "13711695000", "bruno@gmail.com", "12345", new BigDecimal("-0.01"), "ADMIN");
+
+        ValidationException exception = assertThrows(ValidationException.class, () -> ValidationRules.USER_UPDATE.validate(dto, null, false));
+
+        assertEquals(1, exception.getErrors().size());
+        assertEquals(ValidationCode.USER_ROLE_INVALID, exception.getErrors().get(0).code());
+    }
+
+    @Test
+    void whenTransferAmountDiffersOnlyInScaleThenCompareExactly() {
+        User sender = new User(1L, "Bruno Silva", "13711695000", "bruno@gmail.com", "12345", UserRole.COMMON_USER, new BigDecimal("10.00"));
+        TransferRequest request = new TransferRequest();
+        request.setSenderId(1L);
+        request.setRecipient(2L);
+        request.setValue(new BigDecimal("10.0"));
+
+        assertNull(ValidationRules.TRANSFER.firstError(request, sender));
+
+        request.setValue(new BigDecimal("10.000000000000000001"));
+        assertEquals(ValidationCode.TRANSFER_INSUFFICIENT_BALANCE, ValidationRules.TRANSFER.firstError(request, sender).code());
+
+        request.setValue(new BigDecimal("0.00"));
+        assertEquals(ValidationCode.TRANSFER_AMOUNT_ZERO, ValidationRules.TRANSFER.firstError(request, sender).code());
+    }
+
+    @Test
+    void whenSenderIsMerchantThenReturnMerchantError() {
+        User sender = new User(1L, "Bruno Silva", "13711695000", "bruno@gmail.com", "12345", UserRole.MERCHANT, BigDecimal.TEN);
+        TransferRequest request = new TransferRequest();
+        request.setSenderId(1L);
+        request.setRecipient(1L);
+        request.setValue(BigDecimal.ONE);
+
+        assertEquals(List.of(ValidationCode.TRANSFER_SENDER_MERCHANT, ValidationCode.TRANSFER_SELF),
+                ValidationRules.TRANSFER.allErrors(request, sender).stream().map(ValidationError::code).toList());
+    }
+}